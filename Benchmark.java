@@ -0,0 +1,511 @@
+/**
+ * <code>Benchmark</code> times the hot paths of the framework - loading a data
+ * set, inducing a tree, evaluating the splits of a node, and predicting - over
+ * synthetic data sets of every combination of the given sizes, and over the
+ * bundled protein data set.
+ *
+ * Every benchmark is run for a number of warm-up iterations, whose results are
+ * thrown away, and then for a number of measured ones. An iteration repeats the
+ * operation for at least bench.time milliseconds. For every benchmark the time
+ * per operation is reported (the mean and the standard deviation over the
+ * measured iterations), along with the number of operations a second, the bytes
+ * allocated per operation and the allocation rate, and the collections and the
+ * collection time spent while measuring. The allocations are those of the
+ * benchmarking thread, so the trees are induced and the files parsed on it
+ * alone (parallelism 1).
+ *
+ * Usage - java [-Dbench.<setting>=<value> ...] Benchmark [benchmark ...]
+ *
+ * The benchmarks are load, induce, split, entropy, predict and batch - all of
+ * them by default. The settings are bench.rows, bench.attributes,
+ * bench.cardinality (0 for linear attributes) and bench.classes - comma-separated
+ * lists of the synthetic data set sizes; bench.protein - the directory holding
+ * protein.names and protein.dat ("" to leave them out); bench.warmup and
+ * bench.iterations; and bench.time.
+ *
+ * @author pandit
+ *
+ * @version 1.0
+ *
+ * Revision Log
+ *
+ * Date       Version        Description
+ ******************************************************************************
+ * 18th Oct    1.0     	First cut at Benchmark
+ ******************************************************************************
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+
+public class Benchmark {
+
+	private static final String [] BENCHMARKS = {"load", "induce", "split", "entropy", "predict", "batch"};
+
+	private static final int LOAD = 0;
+
+	private static final int INDUCE = 1;
+
+	private static final int SPLIT = 2;
+
+	private static final int ENTROPY = 3;
+
+	private static final int PREDICT = 4;
+
+	private static final int BATCH = 5;
+
+	/*
+	 * The share of the rows of a synthetic data set whose class is drawn at random, not by the rule
+	 */
+	private static final double NOISE = 0.1;
+
+	/*
+	 * Results are folded into the sink, so the operations cannot be optimized away
+	 */
+	private static volatile long sink;
+
+	private static int warmup;
+
+	private static int iterations;
+
+	private static long minTime;
+
+	/*
+	 * The data set being benchmarked: a loaded tree, a learner sharing its data, its training
+	 * rows, and a model induced over them - predicted on all the rows of the data set
+	 */
+	private static String namesFile;
+
+	private static String dataFile;
+
+	private static DecisionTree data;
+
+	private static DecisionTree learner;
+
+	private static int [] rows;
+
+	private static TreeModel model;
+
+	private static int [] predicted;
+
+
+	public static void main (final String [] args) throws Exception {
+
+		boolean [] selected = new boolean [BENCHMARKS.length];
+
+		for (int i = 0; i < args.length; i++) {
+
+			int b = indexOf (args[i]);
+
+			if (b < 0) {
+
+				System.out.println ("\nUnknown benchmark " + args[i] + " - choose from load, induce, split, entropy, predict and batch");
+
+				System.exit (1);
+			}
+
+			selected[b] = true;
+		}
+
+		for (int b = 0; b < BENCHMARKS.length; b++) {
+
+			selected[b] = selected[b] || args.length == 0;
+		}
+
+		int [] numRows = parseList (System.getProperty ("bench.rows", "10000,100000"));
+
+		int [] numAttributes = parseList (System.getProperty ("bench.attributes", "20"));
+
+		int [] cardinalities = parseList (System.getProperty ("bench.cardinality", "8,0"));
+
+		int [] numClasses = parseList (System.getProperty ("bench.classes", "4"));
+
+		String proteinDirectory = System.getProperty ("bench.protein", ".");
+
+		warmup = Integer.getInteger ("bench.warmup", 3).intValue ();
+
+		iterations = Integer.getInteger ("bench.iterations", 5).intValue ();
+
+		minTime = Long.getLong ("bench.time", 200).longValue () * 1000000L;
+
+		System.out.println ("\nBenchmark                                          ms/op      +/-        ops/s      bytes/op     MB/s   gc   gc ms");
+
+		if (proteinDirectory.length () > 0 && new File (proteinDirectory, "protein.dat").exists ()) {
+
+			namesFile = new File (proteinDirectory, "protein.names").getPath ();
+
+			dataFile = new File (proteinDirectory, "protein.dat").getPath ();
+
+			runAll ("protein", selected);
+		}
+
+		File directory = Files.createTempDirectory ("c5bench").toFile ();
+
+		for (int r = 0; r < numRows.length; r++) {
+
+			for (int a = 0; a < numAttributes.length; a++) {
+
+				for (int v = 0; v < cardinalities.length; v++) {
+
+					for (int c = 0; c < numClasses.length; c++) {
+
+						String name = "r" + numRows[r] + "-a" + numAttributes[a] + "-v" + cardinalities[v] + "-c" + numClasses[c];
+
+						namesFile = new File (directory, name + ".names").getPath ();
+
+						dataFile = new File (directory, name + ".data").getPath ();
+
+						generate (numRows[r], numAttributes[a], cardinalities[v], numClasses[c]);
+
+						runAll (name, selected);
+
+						new File (namesFile).delete ();
+
+						new File (dataFile).delete ();
+					}
+				}
+			}
+		}
+
+		directory.delete ();
+	}
+
+	/**
+	 * Loads the current data set, and runs the selected benchmarks over it
+	 */
+	private static void runAll (final String name, final boolean [] selected) throws Exception {
+
+		data = newTree ();
+
+		data.load ();
+
+		learner = new DecisionTree (data);
+
+		rows = data.getTrainingRows ();
+
+		model = learner.induceSample (rows.clone (), null, 0);
+
+		predicted = new int [data.getTrainingSet ().numRows];
+
+		for (int b = 0; b < BENCHMARKS.length; b++) {
+
+			if (selected[b]) {
+
+				measure (name + " " + BENCHMARKS[b], b);
+			}
+		}
+	}
+
+	private static DecisionTree newTree () {
+
+		// the file is read once, and split by the default, seeded DataSplit
+		DecisionTree tree = new DecisionTree (namesFile, dataFile, "SPLIT", 100, false);
+
+		tree.setParallelism (1);
+
+		return tree;
+	}
+
+	/**
+	 * Runs one operation of a benchmark
+	 *
+	 * @return a result of the operation, for the sink
+	 */
+	private static long operate (final int benchmark) throws Exception {
+
+		if (benchmark == LOAD) {
+
+			DecisionTree tree = newTree ();
+
+			tree.load ();
+
+			return tree.getTrainingSet ().numRows;
+
+		} else if (benchmark == INDUCE) {
+
+			return new DecisionTree (data).induceSample (rows.clone (), null, 0).numNodes ();
+
+		} else if (benchmark == SPLIT) {
+
+			// a tree of depth 1 is the evaluation of every split of the root
+			DecisionTree stump = new DecisionTree (data);
+
+			stump.setMaxDepth (1);
+
+			return stump.induceSample (rows.clone (), null, 0).numNodes ();
+
+		} else if (benchmark == ENTROPY) {
+
+			return Double.doubleToLongBits (learner.calculateEntropy (rows, 0, rows.length));
+
+		} else if (benchmark == PREDICT) {
+
+			Dataset set = data.getTrainingSet ();
+
+			long sum = 0;
+
+			for (int row = 0; row < set.numRows; row++) {
+
+				sum += model.predict (set, row);
+			}
+
+			return sum;
+
+		} else {
+
+			model.predictBatch (data.getTrainingSet (), predicted);
+
+			return predicted[predicted.length - 1];
+		}
+	}
+
+	/**
+	 * Runs the warm-up and the measured iterations of a benchmark, and reports them
+	 */
+	private static void measure (final String name, final int benchmark) throws Exception {
+
+		for (int i = 0; i < warmup; i++) {
+
+			iterate (benchmark, null);
+		}
+
+		double [] times = new double [iterations];
+
+		long [] totals = new long [4];
+
+		for (int i = 0; i < iterations; i++) {
+
+			times[i] = iterate (benchmark, totals);
+		}
+
+		double mean = 0;
+
+		for (int i = 0; i < iterations; i++) {
+
+			mean += times[i] / iterations;
+		}
+
+		double deviation = 0;
+
+		for (int i = 0; i < iterations; i++) {
+
+			deviation += (times[i] - mean) * (times[i] - mean);
+		}
+
+		deviation = iterations > 1 ? Math.sqrt (deviation / (iterations - 1)) : 0;
+
+		long numOperations = totals[0];
+
+		double seconds = totals[1] / 1e9;
+
+		String allocation = totals[2] < 0 ? "       n/a      n/a" :
+				String.format ("  %12d  %7.1f", totals[2] / numOperations, totals[2] / seconds / (1 << 20));
+
+		System.out.println (String.format ("%-46s %10.4f %8.4f %12.1f", name, mean / 1e6, deviation / 1e6, numOperations / seconds) + allocation
+				+ String.format ("  %3d  %6d", totals[3] >> 32, totals[3] & 0xffffffffL));
+	}
+
+	/**
+	 * Repeats the operation of a benchmark for at least minTime
+	 *
+	 * @param totals - adds up the operations, the nanoseconds, the bytes allocated (-1 if they
+	 * 		  cannot be measured) and the collections and their milliseconds (high and low
+	 * 		  half); null for a warm-up iteration
+	 *
+	 * @return the nanoseconds an operation took
+	 */
+	private static double iterate (final int benchmark, final long [] totals) throws Exception {
+
+		long allocated = allocatedBytes ();
+
+		long collections = collections ();
+
+		long start = System.nanoTime ();
+
+		long elapsed = 0;
+
+		long numOperations = 0;
+
+		long result = 0;
+
+		while (elapsed < minTime) {
+
+			result += operate (benchmark);
+
+			numOperations = numOperations + 1;
+
+			elapsed = System.nanoTime () - start;
+		}
+
+		sink = sink + result;
+
+		if (totals != null) {
+
+			totals[0] += numOperations;
+
+			totals[1] += elapsed;
+
+			totals[2] = allocated < 0 || totals[2] < 0 ? -1 : totals[2] + allocatedBytes () - allocated;
+
+			totals[3] += collections () - collections;
+		}
+
+		return (double) elapsed / numOperations;
+	}
+
+	/**
+	 * @return the bytes the current thread has allocated so far, or -1 if the JVM cannot tell
+	 */
+	private static long allocatedBytes () {
+
+		java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean ();
+
+		if (threads instanceof com.sun.management.ThreadMXBean) {
+
+			com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) threads;
+
+			if (hotspot.isThreadAllocatedMemorySupported () && hotspot.isThreadAllocatedMemoryEnabled ()) {
+
+				return hotspot.getThreadAllocatedBytes (Thread.currentThread ().getId ());
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * @return the number of collections so far, in the high half, and their milliseconds in the low half
+	 */
+	private static long collections () {
+
+		List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans ();
+
+		long count = 0;
+
+		long time = 0;
+
+		for (int i = 0; i < collectors.size (); i++) {
+
+			count += Math.max (0, collectors.get (i).getCollectionCount ());
+
+			time += Math.max (0, collectors.get (i).getCollectionTime ());
+		}
+
+		return (count << 32) + time;
+	}
+
+	/**
+	 * Writes a synthetic data set: the class of a row follows a rule over its first
+	 * attributes, except for a NOISE share of the rows, drawn at random
+	 *
+	 * @param numRows
+	 * @param numAttributes - the number of input attributes
+	 * @param cardinality - the number of values of every input attribute; 0 for linear ones
+	 * @param numClasses
+	 */
+	private static void generate (final int numRows, final int numAttributes, final int cardinality, final int numClasses) throws IOException {
+
+		StringBuilder names = new StringBuilder ("class.\n");
+
+		for (int a = 0; a < numAttributes; a++) {
+
+			names.append ("a" + a + ":");
+
+			if (cardinality == 0) {
+
+				names.append (" linear");
+			}
+
+			for (int v = 0; v < cardinality; v++) {
+
+				names.append (v == 0 ? " v" : ", v").append (v);
+			}
+
+			names.append (".\n");
+		}
+
+		names.append ("class:");
+
+		for (int c = 0; c < numClasses; c++) {
+
+			names.append (c == 0 ? " c" : ", c").append (c);
+		}
+
+		names.append (".\n");
+
+		Utils.writeStringToFile (names.toString (), namesFile);
+
+		// seeded, so that every run benchmarks the same data
+		Random random = new Random (numRows * 31L + numAttributes * 17L + cardinality * 7L + numClasses);
+
+		StringBuilder rows = new StringBuilder ();
+
+		int [] values = new int [numAttributes];
+
+		for (int row = 0; row < numRows; row++) {
+
+			for (int a = 0; a < numAttributes; a++) {
+
+				if (cardinality == 0) {
+
+					double value = Math.round (random.nextDouble () * 10000) / 100.;
+
+					values[a] = (int) (value / 25);
+
+					rows.append (value);
+
+				} else {
+
+					values[a] = random.nextInt (cardinality);
+
+					rows.append ('v').append (values[a]);
+				}
+
+				rows.append (',');
+			}
+
+			int label = (values[0] + 2 * values[Math.min (1, numAttributes - 1)] + values[numAttributes / 2] * values[numAttributes - 1]) % numClasses;
+
+			if (random.nextDouble () < NOISE) {
+
+				label = random.nextInt (numClasses);
+			}
+
+			rows.append ('c').append (label).append ('\n');
+		}
+
+		Utils.writeStringToFile (rows.toString (), dataFile);
+	}
+
+	private static int indexOf (final String benchmark) {
+
+		for (int b = 0; b < BENCHMARKS.length; b++) {
+
+			if (BENCHMARKS[b].equals (benchmark)) {
+
+				return b;
+			}
+		}
+
+		return -1;
+	}
+
+	private static int [] parseList (final String list) {
+
+		String [] items = list.split (",");
+
+		int [] values = new int [items.length];
+
+		for (int i = 0; i < items.length; i++) {
+
+			values[i] = Integer.parseInt (items[i].trim ());
+		}
+
+		return values;
+	}
+}
@@ -0,0 +1,303 @@
+/**
+ * <code>BoostedModel</code> is the prediction-side view of a gradient-boosted
+ * ensemble trained by GradientBoosting. All the trees are flattened into one
+ * array of node records, in the layout TreeModel uses for a single tree, so a
+ * row is scored by a tight walk over primitive arrays that neither allocates
+ * nor follows object references. The model is never modified once built, so a
+ * single instance can be shared by any number of threads.
+ *
+ * Tree t adds the weight of the node a row reaches to the score of class
+ * t % numClasses; the predicted class is the one with the highest score, and the
+ * class probabilities are the softmax of the scores.
+ *
+ * @author pandit
+ *
+ * @version 1.0
+ *
+ * Revision Log
+ *
+ * Date       Version        Description
+ ******************************************************************************
+ * 18th Oct    1.0     	First cut at BoostedModel
+ *
+ *             1.1     	predict takes the buffer of scores from the caller
+ ******************************************************************************
+ */
+
+public final class BoostedModel {
+
+	/*
+	 * Each node is a record of NODE_SIZE ints in the nodes array: the attribute it
+	 * decomposes on (-1 for a leaf), the index of its first child and the number of
+	 * children. The children of a node are numbered consecutively, so the child for
+	 * value v is firstChild + v. A node on a numeric attribute has two children: the
+	 * first for values <= its threshold, the second for the larger values and for '?'.
+	 * A row carrying a value not seen in training stops at the inner node.
+	 */
+	static final int NODE_SIZE = 3;
+
+	static final int ATTRIBUTE = 0;
+
+	static final int FIRST_CHILD = 1;
+
+	static final int NUM_CHILDREN = 2;
+
+	final int [] nodes;
+
+	/*
+	 * The threshold of every node on a numeric attribute, by node index
+	 */
+	final double [] thresholds;
+
+	/*
+	 * The weight, shrinkage included, every node adds to the score of its class, by node index
+	 */
+	final double [] weights;
+
+	/*
+	 * The index of the root node of every tree
+	 */
+	final int [] roots;
+
+	/*
+	 * The score every class starts from - the log of its prior
+	 */
+	final double [] baseScores;
+
+	final boolean [] numeric;
+
+	final String [] classNames;
+
+
+	BoostedModel (final int [] nodes, final double [] thresholds, final double [] weights, final int [] roots, final double [] baseScores,
+			final boolean [] numeric, final String [] classNames) {
+
+		this.nodes = nodes;
+
+		this.thresholds = thresholds;
+
+		this.weights = weights;
+
+		this.roots = roots;
+
+		this.baseScores = baseScores;
+
+		this.numeric = numeric;
+
+		this.classNames = classNames;
+	}
+
+	/**
+	 * Computes the score of every class for one row of a columnar data set
+	 *
+	 * @param data
+	 * @param row
+	 * @param scores - receives the score of class c at scores[c]; must hold numClasses entries
+	 */
+	public void predictScores (final Dataset data, final int row, final double [] scores) {
+
+		int [] nodes = this.nodes;
+
+		int numClasses = baseScores.length;
+
+		System.arraycopy (baseScores, 0, scores, 0, numClasses);
+
+		for (int t = 0; t < roots.length; t++) {
+
+			int node = roots[t];
+
+			while (true) {
+
+				int base = node * NODE_SIZE;
+
+				int attribute = nodes[base + ATTRIBUTE];
+
+				if (attribute < 0) {
+
+					break;
+				}
+
+				int value;
+
+				if (numeric[attribute]) {
+
+					value = data.numericColumns[attribute][row] <= thresholds[node] ? 0 : 1;
+
+				} else {
+
+					value = data.columns[attribute][row];
+				}
+
+				if (value < 0 || value >= nodes[base + NUM_CHILDREN]) {
+
+					break;
+				}
+
+				node = nodes[base + FIRST_CHILD] + value;
+			}
+
+			scores[t % numClasses] += weights[node];
+		}
+	}
+
+	/**
+	 * Computes the score of every class for a row given by its values
+	 *
+	 * @param codes - the domain index of each symbolic attribute's value
+	 * @param values - the value of each numeric attribute (NaN for a '?'); may be null
+	 * 		  if there are none
+	 * @param scores - receives the score of class c at scores[c]; must hold numClasses entries
+	 */
+	public void predictScores (final int [] codes, final double [] values, final double [] scores) {
+
+		int [] nodes = this.nodes;
+
+		int numClasses = baseScores.length;
+
+		System.arraycopy (baseScores, 0, scores, 0, numClasses);
+
+		for (int t = 0; t < roots.length; t++) {
+
+			int node = roots[t];
+
+			while (true) {
+
+				int base = node * NODE_SIZE;
+
+				int attribute = nodes[base + ATTRIBUTE];
+
+				if (attribute < 0) {
+
+					break;
+				}
+
+				int value;
+
+				if (numeric[attribute]) {
+
+					value = values[attribute] <= thresholds[node] ? 0 : 1;
+
+				} else {
+
+					value = codes[attribute];
+				}
+
+				if (value < 0 || value >= nodes[base + NUM_CHILDREN]) {
+
+					break;
+				}
+
+				node = nodes[base + FIRST_CHILD] + value;
+			}
+
+			scores[t % numClasses] += weights[node];
+		}
+	}
+
+	/**
+	 * @param scores - scratch space for the scores of the row; must hold numClasses entries
+	 * 
+	 * @return the index of the predicted class of one row of a columnar data set
+	 */
+	public int predict (final Dataset data, final int row, final double [] scores) {
+
+		predictScores (data, row, scores);
+
+		return best (scores);
+	}
+
+	/**
+	 * @param scores - scratch space for the scores of the row; must hold numClasses entries
+	 * 
+	 * @return the index of the predicted class of a row given by its values
+	 */
+	public int predict (final int [] codes, final double [] values, final double [] scores) {
+
+		predictScores (codes, values, scores);
+
+		return best (scores);
+	}
+
+	/**
+	 * Predicts the class of every row of a columnar data set
+	 *
+	 * @param data
+	 * @param out - receives the prediction for row i at out[i]; must hold at least data.numRows entries
+	 */
+	public void predictBatch (final Dataset data, final int [] out) {
+
+		double [] scores = new double [baseScores.length];
+
+		for (int row = 0; row < data.numRows; row++) {
+
+			predictScores (data, row, scores);
+
+			out[row] = best (scores);
+		}
+	}
+
+	/**
+	 * Turns the scores of a row into the probabilities of the classes, in place
+	 */
+	public static void softmax (final double [] scores) {
+
+		double max = Double.NEGATIVE_INFINITY;
+
+		for (int c = 0; c < scores.length; c++) {
+
+			max = Math.max (max, scores[c]);
+		}
+
+		double sum = 0;
+
+		for (int c = 0; c < scores.length; c++) {
+
+			scores[c] = Math.exp (scores[c] - max);
+
+			sum += scores[c];
+		}
+
+		for (int c = 0; c < scores.length; c++) {
+
+			scores[c] /= sum;
+		}
+	}
+
+	/**
+	 * @return the class with the highest score - the lowest index on a tie
+	 */
+	private static int best (final double [] scores) {
+
+		int best = 0;
+
+		for (int c = 1; c < scores.length; c++) {
+
+			if (scores[c] > scores[best]) {
+
+				best = c;
+			}
+		}
+
+		return best;
+	}
+
+	public String className (final int label) {
+
+		return classNames[label];
+	}
+
+	public int numClasses () {
+
+		return classNames.length;
+	}
+
+	public int numTrees () {
+
+		return roots.length;
+	}
+
+	public int numNodes () {
+
+		return weights.length;
+	}
+}
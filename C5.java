@@ -17,6 +17,31 @@
  * 						Incorporated max-depth argument
  * 						Checked outputs of wrongly classified examples
  * 						Discretized linear and nominal values
+ *
+ * 18th Oct    1.3     	-Dc5.cache=true keeps a binary cache of the parsed data files
+ *
+ *             1.4     	-Dc5.model=<file> saves the trained model for MappedTreeModel
+ *
+ *             1.5     	-Dc5.bins=<n> finds numeric splits over n-bin histograms
+ *
+ *             1.6     	-Dc5.outofcore=<dir> trains out of core, with the training rows kept in <dir>
+ *
+ *             1.7     	max-depth limits the induced tree, not just its display
+ *
+ *             1.8     	-Dc5.minleaf, -Dc5.mingain and -Dc5.maxleaves stop the tree growing earlier
+ *
+ *             1.9     	-Dc5.trees=<n> trains a random forest of n trees instead of a single tree
+ *
+ *             1.10    	-Dc5.boost=<n> trains n rounds of gradient-boosted trees instead
+ *
+ *             1.11    	-Dc5.folds=<k> cross-validates a grid of max-depths and minimum leaf sizes
+ *
+ *             1.12    	-Dc5.split=random|stratified|hashed chooses how a single data file is split,
+ * 						seeded by -Dc5.seed
+ *
+ *             1.13    	-Dc5.cache only caches the testing file when training out of core
+ *
+ *             1.14    	-Dc5.folds cross-validates over all the rows of a single data file
  ******************************************************************************
  */
 
@@ -59,17 +84,158 @@ public class C5 {
 
 			System.out.println ("\nUsage - java C5 <names-File> <training-Set-Filename> [testing-Set-Filename] [max-depth]");
 
-			System.out.println ("\n[Optional] - [testing-Set-Filename] - defaults to 1/3rd of training-file sampled randomly");
+			System.out.println ("\n[Optional] - [testing-Set-Filename] - defaults to 1/3rd of training-file, split by -Dc5.split and -Dc5.seed");
 
-			System.out.println ("\n[Optional] - [max-depth] - defaults to 3 | Enter a large value (like 100) to make it redundant");
+			System.out.println ("\n[Optional] - [max-depth] - the most tests on a path of the tree; defaults to 3 | Enter a large value (like 100) to make it redundant");
 
 			System.out.println ("\nNote: In case you're not providing any of the optional parameters, you needn't worry about the order; as in whether [max-depth] can come as the 3rd argument in case [testing-Set-Filename] isn't present. The framework will take care of this :-)");
 
 			System.exit (0);
 		}
 
+	    // re-use / keep a binary cache of each parsed data file (see DatasetCache)
+	    instance.setDataCache (Boolean.getBoolean ("c5.cache"));
+
+	    // approximate, histogram split finding for large numeric data sets (see NumericBins)
+	    instance.setHistogramBins (Integer.getInteger ("c5.bins", 0).intValue ());
+
+	    // stopping criteria, besides max-depth
+	    instance.setMinLeafSize (Integer.getInteger ("c5.minleaf", 1).intValue ());
+
+	    instance.setMinGain (Double.parseDouble (System.getProperty ("c5.mingain", "0")));
+
+	    instance.setMaxLeaves (Integer.getInteger ("c5.maxleaves", Integer.MAX_VALUE).intValue ());
+
+	    // out-of-core training for data sets larger than the heap (see DiskDataset)
+	    instance.setOutOfCoreDirectory (System.getProperty ("c5.outofcore"));
+
+	    if (instance.getDataCache () && instance.getOutOfCoreDirectory () != null) {
+
+	    	System.out.println ("\n-Dc5.cache caches the testing file only; the training file is streamed out of core from its text");
+	    }
+
+	    // how a single data file is split into training and testing rows (see DataSplit)
+	    instance.setSplit (splitMode (System.getProperty ("c5.split", "stratified")), Long.getLong ("c5.seed", 1).longValue ());
+
+	    // a random forest instead of a single tree (see RandomForest)
+	    int numTrees = Integer.getInteger ("c5.trees", 0).intValue ();
+
+	    // k-fold cross-validation over a grid of settings, instead of a single tree (see CrossValidation)
+	    int numFolds = Integer.getInteger ("c5.folds", 0).intValue ();
+
+	    if (numFolds > 0) {
+
+	    	// the folds test every row in turn, so a single data file keeps no holdout
+	    	instance.setHoldout (false);
+
+	    	instance.load ();
+
+	    	CrossValidation validation = new CrossValidation (instance, numFolds, Long.getLong ("c5.seed", 1).longValue ());
+
+	    	validation.run (parseList (System.getProperty ("c5.depths"), instance.getMaxDepth ()), parseList (System.getProperty ("c5.minleafs"), instance.getMinLeafSize ()));
+
+	    	validation.displayResults ();
+
+	    	Utils.waitHere ("Press a key to exit");
+
+	    	return;
+	    }
+
+	    // gradient-boosted trees instead of a single tree (see GradientBoosting)
+	    int numRounds = Integer.getInteger ("c5.boost", 0).intValue ();
+
+	    if ((numTrees > 0 || numRounds > 0) && System.getProperty ("c5.model") != null) {
+
+	    	System.out.println ("\n-Dc5.model saves a single tree; ignored for an ensemble");
+	    }
+
+	    if (numRounds > 0) {
+
+	    	instance.load ();
+
+	    	GradientBoosting boosting = new GradientBoosting (instance, numRounds, Double.parseDouble (System.getProperty ("c5.shrinkage", "0.1")),
+	    			Double.parseDouble (System.getProperty ("c5.rowsample", "1")), Double.parseDouble (System.getProperty ("c5.colsample", "1")),
+	    			Long.getLong ("c5.seed", 1).longValue ());
+
+	    	boosting.train ();
+
+	    	boosting.test (instance.getTestingSet (), instance.getTestingRows ());
+
+	    	Utils.waitHere ("Press a key to exit");
+
+	    	return;
+	    }
+
+	    if (numTrees > 0) {
+
+	    	instance.load ();
+
+	    	RandomForest forest = new RandomForest (instance, numTrees, Integer.getInteger ("c5.features", 0).intValue (), Long.getLong ("c5.seed", 1).longValue ());
+
+	    	forest.train ();
+
+	    	forest.test (instance.getTestingSet (), instance.getTestingRows ());
+
+	    	Utils.waitHere ("Press a key to exit");
+
+	    	return;
+	    }
+
 	    instance.process ();
 
+	    // save the trained model for scoring without retraining (see MappedTreeModel)
+	    String modelFile = System.getProperty ("c5.model");
+
+	    if (modelFile != null) {
+
+	    	instance.getModel ().save (modelFile);
+
+	    	System.out.println ("\nModel saved to " + modelFile);
+	    }
+
 	    Utils.waitHere ("Press a key to exit");
 	}
+
+	/**
+	 * @return the DataSplit mode of its name
+	 */
+	private static int splitMode (final String name) {
+
+		if (name.equalsIgnoreCase ("random")) {
+
+			return DataSplit.RANDOM;
+
+		} else if (name.equalsIgnoreCase ("hashed")) {
+
+			return DataSplit.HASHED;
+
+		} else if (name.equalsIgnoreCase ("stratified")) {
+
+			return DataSplit.STRATIFIED;
+		}
+
+		throw new IllegalArgumentException ("-Dc5.split must be random, stratified or hashed, was " + name);
+	}
+
+	/**
+	 * @return the integers of a comma-separated list, or just the default if there is no list
+	 */
+	private static int [] parseList (final String list, final int defaultValue) {
+
+		if (list == null) {
+
+			return new int [] {defaultValue};
+		}
+
+		String [] items = list.split (",");
+
+		int [] values = new int [items.length];
+
+		for (int i = 0; i < items.length; i++) {
+
+			values[i] = Integer.parseInt (items[i].trim ());
+		}
+
+		return values;
+	}
 }
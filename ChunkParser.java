@@ -0,0 +1,99 @@
+/**
+ * <code>ChunkParser</code> parses one byte range of a data file on a worker
+ * thread. The symbols are encoded against the chunk's own symbol tables, so
+ * the workers share nothing; InputProcessor merges the chunks afterwards.
+ *
+ * @author pandit
+ *
+ * @version 1.0
+ *
+ * Revision Log
+ *
+ * Date       Version        Description
+ ******************************************************************************
+ * 18th Oct    1.0     	First cut at ChunkParser
+ ******************************************************************************
+ */
+
+import java.util.concurrent.Callable;
+
+class ChunkParser implements Callable<Object> {
+
+	private final InputProcessor processor;
+
+	private final String fileName;
+
+	private final long start;
+
+	private final long end;
+
+	public final SymbolTable [] tables;
+
+	/*
+	 * Receives the rows of a symbolic file - null when parsing a linear / nominal one
+	 */
+	public final Dataset rows;
+
+	/*
+	 * Receives the rows of a linear / nominal file - null when parsing a symbolic one
+	 */
+	public final NumericColumns numericRows;
+
+	/*
+	 * 1 once parsed, -1 if a record had the wrong number of fields
+	 */
+	public int status;
+
+
+	public ChunkParser (final InputProcessor processor, final String fileName, final long start, final long end, final SymbolTable [] tables, final Dataset rows) {
+
+		this.processor = processor;
+
+		this.fileName = fileName;
+
+		this.start = start;
+
+		this.end = end;
+
+		this.tables = tables;
+
+		this.rows = rows;
+
+		this.numericRows = null;
+	}
+
+	public ChunkParser (final InputProcessor processor, final String fileName, final long start, final long end, final SymbolTable [] tables, final NumericColumns numericRows) {
+
+		this.processor = processor;
+
+		this.fileName = fileName;
+
+		this.start = start;
+
+		this.end = end;
+
+		this.tables = tables;
+
+		this.rows = null;
+
+		this.numericRows = numericRows;
+	}
+
+	public Object call () throws Exception {
+
+		MappedCsvReader reader = new MappedCsvReader (fileName, start, end);
+
+		if (rows != null) {
+
+			status = processor.parseRecords (reader, tables, rows, null);
+
+		} else {
+
+			status = processor.parseNumericRecords (reader, tables[tables.length - 1], numericRows, null);
+		}
+
+		reader.close ();
+
+		return null;
+	}
+}
@@ -0,0 +1,96 @@
+/**
+ * <code>ClassCounts</code> is the SplitStatistic of a decision tree: a cell counts
+ * the rows of every class, and a group of n rows scores the sum of c ln c over its
+ * class counts c, less n ln n - that is, minus n times its entropy. The best split
+ * so leaves the lowest weighted entropy.
+ *
+ * @author pandit
+ *
+ * @version 1.0
+ *
+ * Revision Log
+ *
+ * Date       Version        Description
+ ******************************************************************************
+ * 18th Oct    1.0     	First cut at ClassCounts
+ ******************************************************************************
+ */
+
+class ClassCounts implements SplitStatistic {
+
+	private final DecisionTree tree;
+
+	private final int [] classColumn;
+
+	private final int numClasses;
+
+
+	/**
+	 * @param tree - the tree being induced, whose n ln n table the scores are taken from
+	 * @param classColumn - the class of every row
+	 * @param numClasses
+	 */
+	public ClassCounts (final DecisionTree tree, final int [] classColumn, final int numClasses) {
+
+		this.tree = tree;
+
+		this.classColumn = classColumn;
+
+		this.numClasses = numClasses;
+	}
+
+	public int cellSize () {
+
+		return numClasses;
+	}
+
+	public void add (final double [] histogram, final int offset, final byte [] codes, final int [] rows, final int start, final int end) {
+
+		for (int i = start; i < end; i++) {
+
+			int row = rows[i];
+
+			histogram[offset + (codes[row] & 0xff) * numClasses + classColumn[row]] += 1;
+		}
+	}
+
+	public void add (final double [] histogram, final int offset, final int [] column, final int [] rows, final int start, final int end) {
+
+		for (int i = start; i < end; i++) {
+
+			int row = rows[i];
+
+			histogram[offset + column[row] * numClasses + classColumn[row]] += 1;
+		}
+	}
+
+	public int count (final double [] sums, final int cell) {
+
+		int count = 0;
+
+		for (int c = 0; c < numClasses; c++) {
+
+			count += (int) sums[cell + c];
+		}
+
+		return count;
+	}
+
+	public double score (final double [] sums, final int cell) {
+
+		int count = 0;
+
+		double score = 0;
+
+		for (int c = 0; c < numClasses; c++) {
+
+			int n = (int) sums[cell + c];
+
+			score += tree.xLogX (n);
+
+			count += n;
+		}
+
+		return score - tree.xLogX (count);
+	}
+}
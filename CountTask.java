@@ -0,0 +1,85 @@
+/**
+ * <code>CountTask</code> fills the contingency table of a node for a range of
+ * attributes, halving the range across workers while it is large enough.
+ * Every attribute owns its own region of the table, so no two tasks ever
+ * write the same count.
+ *
+ * @author pandit
+ *
+ * @version 1.0
+ *
+ * Revision Log
+ *
+ * Date       Version        Description
+ ******************************************************************************
+ * 18th Oct    1.0     	First cut at CountTask
+ *
+ *             1.1     	Numeric attributes are swept for their best threshold
+ *
+ *             1.2     	The attributes to skip are a bitset
+ ******************************************************************************
+ */
+
+import java.util.concurrent.RecursiveAction;
+
+class CountTask extends RecursiveAction {
+
+	private static final long serialVersionUID = 1L;
+
+	/*
+	 * The number of cells (rows x attributes) below which a range is counted serially
+	 */
+	public static final int SCAN_THRESHOLD = 1 << 16;
+
+	private final DecisionTree tree;
+
+	private final TreeNode node;
+
+	private final long [] skip;
+
+	private final int [] classes;
+
+	private final int [] counts;
+
+	private final double [] cuts;
+
+	private final int from;
+
+	private final int to;
+
+
+	public CountTask (final DecisionTree tree, final TreeNode node, final long [] skip, final int [] classes, final int [] counts, final double [] cuts, final int from, final int to) {
+
+		this.tree = tree;
+
+		this.node = node;
+
+		this.skip = skip;
+
+		this.classes = classes;
+
+		this.counts = counts;
+
+		this.cuts = cuts;
+
+		this.from = from;
+
+		this.to = to;
+	}
+
+	protected void compute () {
+
+		if (to - from < 2 || (long) (to - from) * node.size () < SCAN_THRESHOLD) {
+
+			tree.countAttributes (node, skip, classes, counts, cuts, from, to);
+
+			return;
+		}
+
+		int middle = (from + to) >>> 1;
+
+		invokeAll (new CountTask (tree, node, skip, classes, counts, cuts, from, middle),
+
+				   new CountTask (tree, node, skip, classes, counts, cuts, middle, to));
+	}
+}
@@ -0,0 +1,383 @@
+/**
+ * <code>CrossValidation</code> estimates the accuracy of decision trees by k-fold
+ * cross-validation over the training rows, for every point of a grid of maxDepth
+ * and minLeafSize settings. To cross-validate over all the rows of a single data
+ * file, load it without a holdout (see DecisionTree.setHoldout), as C5 does.
+ *
+ * The data set is loaded once. The rows are dealt into folds class by class, in
+ * an order shuffled by a seeded generator (see DataSplit.folds), so every fold has
+ * about the class proportions of the whole set and a run repeats. Every (setting, fold) pair is
+ * an independent task on a thread pool: a learner sharing the loaded data (see
+ * DecisionTree (DecisionTree)) induces a tree over the rows outside the fold,
+ * and the tree is tested on the rows of the fold. With histogram split finding,
+ * the bins of a fold are computed from the rows it trains on, so the bin bounds
+ * never see the rows it is tested on.
+ *
+ * @author pandit
+ *
+ * @version 1.0
+ *
+ * Revision Log
+ *
+ * Date       Version        Description
+ ******************************************************************************
+ * 18th Oct    1.0     	First cut at CrossValidation
+ *
+ *             1.1     	Folds are dealt by DataSplit, over the training rows only
+ *
+ *             1.2     	Bins per fold; the time of a setting is its wall time
+ *
+ *             1.3     	Says so when the holdout of a single data file is left out
+ *
+ *             1.4     	A serial run reports its single thread in the singular
+ ******************************************************************************
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+public class CrossValidation {
+
+	/*
+	 * The loaded data set, and the settings not swept
+	 */
+	private DecisionTree data;
+
+	private int numFolds;
+
+	private long seed;
+
+	private int parallelism;
+
+	/*
+	 * The rows cross-validated over, and the fold of each, by position
+	 */
+	private int [] rows;
+
+	private int [] folds;
+
+	/*
+	 * The rows every fold trains and tests on, and a learner holding the bins of its 
+	 * training rows that the learners of the fold are made from
+	 */
+	private int [][] trainRows;
+
+	private int [][] testRows;
+
+	private DecisionTree [] foldData;
+
+	/*
+	 * The settings of every grid point
+	 */
+	private int [] maxDepths;
+
+	private int [] minLeafSizes;
+
+	/*
+	 * accuracies[point][fold] - the share of the fold's rows the tree classified correctly; 
+	 * starts[point][fold] and ends[point][fold] - the nanoTime the fold's task started and
+	 * ended at
+	 */
+	private double [][] accuracies;
+
+	private long [][] starts;
+
+	private long [][] ends;
+
+	/*
+	 * The nanoseconds the whole run took
+	 */
+	private long wallTime;
+
+
+	/**
+	 * @param data - a tree whose data set is loaded (see DecisionTree.load), in memory
+	 * @param numFolds - at least 2
+	 * @param seed
+	 */
+	public CrossValidation (final DecisionTree data, final int numFolds, final long seed) {
+
+		if (data.getOutOfCoreDirectory () != null) {
+
+			throw new IllegalStateException ("Cross-validation runs in memory only");
+		}
+
+		if (numFolds < 2 || numFolds > data.getTrainingRows ().length) {
+
+			throw new IllegalArgumentException ("numFolds must be between 2 and the number of training rows, was " + numFolds);
+		}
+
+		this.data = data;
+
+		this.numFolds = numFolds;
+
+		this.seed = seed;
+
+		this.parallelism = data.getParallelism ();
+
+		this.rows = data.getTrainingRows ();
+
+		this.folds = DataSplit.folds (data.getTrainingSet (), rows, numFolds, seed);
+	}
+
+	/**
+	 * Cross-validates every combination of the given settings
+	 *
+	 * @param depths - the maxDepth settings to try
+	 * @param leafSizes - the minLeafSize settings to try
+	 */
+	public void run (final int [] depths, final int [] leafSizes) throws Exception {
+
+		int numPoints = depths.length * leafSizes.length;
+
+		maxDepths = new int [numPoints];
+
+		minLeafSizes = new int [numPoints];
+
+		for (int d = 0; d < depths.length; d++) {
+
+			for (int l = 0; l < leafSizes.length; l++) {
+
+				maxDepths[d * leafSizes.length + l] = depths[d];
+
+				minLeafSizes[d * leafSizes.length + l] = leafSizes[l];
+			}
+		}
+
+		long start = System.nanoTime ();
+
+		accuracies = new double [numPoints][numFolds];
+
+		starts = new long [numPoints][numFolds];
+
+		ends = new long [numPoints][numFolds];
+
+		splitFolds ();
+
+		List<FoldTask> tasks = new ArrayList<FoldTask> ();
+
+		for (int point = 0; point < numPoints; point++) {
+
+			for (int fold = 0; fold < numFolds; fold++) {
+
+				tasks.add (new FoldTask (this, point, fold));
+			}
+		}
+
+		ForkJoinPool pool = new ForkJoinPool (Math.max (1, parallelism));
+
+		List<Future<Object>> futures = pool.invokeAll (tasks);
+
+		pool.shutdown ();
+
+		for (int k = 0; k < futures.size (); k++) {
+
+			// re-throws whatever went wrong in the task
+			futures.get (k).get ();
+		}
+
+		wallTime = System.nanoTime () - start;
+
+		foldData = null;
+	}
+
+	/**
+	 * Sorts the rows into those every fold trains and tests on, and with histogram split
+	 * finding, bins every fold over the rows it trains on - once, for all the settings
+	 */
+	private void splitFolds () {
+
+		trainRows = new int [numFolds][];
+
+		testRows = new int [numFolds][];
+
+		foldData = new DecisionTree [numFolds];
+
+		for (int fold = 0; fold < numFolds; fold++) {
+
+			int numTest = 0;
+
+			for (int i = 0; i < rows.length; i++) {
+
+				if (folds[i] == fold) {
+
+					numTest = numTest + 1;
+				}
+			}
+
+			trainRows[fold] = new int [rows.length - numTest];
+
+			testRows[fold] = new int [numTest];
+
+			int numtrain = 0;
+
+			numTest = 0;
+
+			for (int i = 0; i < rows.length; i++) {
+
+				if (folds[i] == fold) {
+
+					testRows[fold][numTest] = rows[i];
+
+					numTest = numTest + 1;
+
+				} else {
+
+					trainRows[fold][numtrain] = rows[i];
+
+					numtrain = numtrain + 1;
+				}
+			}
+
+			foldData[fold] = data;
+
+			if (data.getHistogramBins () > 0) {
+
+				foldData[fold] = new DecisionTree (data);
+
+				foldData[fold].quantizeColumns (trainRows[fold]);
+			}
+		}
+	}
+
+	/**
+	 * Induces a tree with the settings of a grid point over the rows outside a fold, and
+	 * tests it on the rows of the fold - called by the FoldTasks
+	 */
+	void validate (final int point, final int fold) {
+
+		starts[point][fold] = System.nanoTime ();
+
+		Dataset trainingSet = data.getTrainingSet ();
+
+		int [] testRows = this.testRows[fold];
+
+		int numTest = testRows.length;
+
+		DecisionTree learner = new DecisionTree (foldData[fold]);
+
+		learner.setMaxDepth (maxDepths[point]);
+
+		learner.setMinLeafSize (minLeafSizes[point]);
+
+		TreeModel model = learner.induceSample (trainRows[fold].clone (), null, 0);
+
+		int classAttribute = trainingSet.numAttributes - 1;
+
+		int correct = 0;
+
+		for (int i = 0; i < numTest; i++) {
+
+			if (model.predict (trainingSet, testRows[i]) == trainingSet.value (testRows[i], classAttribute)) {
+
+				correct = correct + 1;
+			}
+		}
+
+		accuracies[point][fold] = numTest > 0 ? 1. * correct / numTest : 0;
+
+		ends[point][fold] = System.nanoTime ();
+	}
+
+	/**
+	 * Displays the mean and the standard deviation of the accuracy over the folds, and the
+	 * wall time of the folds, for every grid point
+	 */
+	public void displayResults () {
+
+		System.out.println ("\n*******************************************************");
+
+		System.out.println ("\n\t" + numFolds + "-fold Cross-Validation Results (seed " + seed + ")");
+
+		System.out.println ("\n maxDepth  minLeaf   Mean Accuracy %   Std. Dev. %   Time (ms)");
+
+		for (int point = 0; point < maxDepths.length; point++) {
+
+			System.out.println (String.format (" %8d  %7d   %15.3f   %11.3f   %9.1f", maxDepths[point], minLeafSizes[point],
+					100 * getMeanAccuracy (point), 100 * getAccuracyDeviation (point), getTime (point) / 1e6));
+		}
+
+		if (data.getTestingSet () == data.getTrainingSet () && data.getHoldout ()) {
+
+			System.out.println ("\n The rows held out of the data file for testing were not cross-validated over");
+		}
+
+		// the pool runs on at least one thread
+		int threads = Math.max (1, parallelism);
+
+		System.out.println ("\n Time (ms) is from the start of the first fold of a setting to the end of its last - the settings overlap "
+				+ "on the pool;\n the whole run took " + String.format ("%.1f", wallTime / 1e6) + " ms on " + threads + (threads == 1 ? " thread" : " threads"));
+	}
+
+	/**
+	 * @return the mean accuracy of a grid point over the folds
+	 */
+	public double getMeanAccuracy (final int point) {
+
+		double sum = 0;
+
+		for (int fold = 0; fold < numFolds; fold++) {
+
+			sum += accuracies[point][fold];
+		}
+
+		return sum / numFolds;
+	}
+
+	/**
+	 * @return the (sample) standard deviation of the accuracy of a grid point over the folds
+	 */
+	public double getAccuracyDeviation (final int point) {
+
+		double mean = getMeanAccuracy (point);
+
+		double sum = 0;
+
+		for (int fold = 0; fold < numFolds; fold++) {
+
+			sum += (accuracies[point][fold] - mean) * (accuracies[point][fold] - mean);
+		}
+
+		return Math.sqrt (sum / (numFolds - 1));
+	}
+
+	/**
+	 * @return the wall time of a grid point in nanoseconds - from the start of its first fold
+	 * 		   to the end of its last
+	 */
+	public long getTime (final int point) {
+
+		long first = Long.MAX_VALUE;
+
+		long last = Long.MIN_VALUE;
+
+		for (int fold = 0; fold < numFolds; fold++) {
+
+			first = Math.min (first, starts[point][fold]);
+
+			last = Math.max (last, ends[point][fold]);
+		}
+
+		return last - first;
+	}
+
+	public long getWallTime () {
+
+		return this.wallTime;
+	}
+
+	/**
+	 * @return the fold of every training row, by its position in DecisionTree.getTrainingRows
+	 */
+	public int [] getFolds () {
+
+		return this.folds;
+	}
+
+	public void setParallelism (final int parallelism) {
+
+		this.parallelism = parallelism;
+	}
+}
@@ -0,0 +1,326 @@
+/**
+ * <code>DataSplit</code> splits the rows of an encoded data set into a training
+ * and a testing part, by index - the rows stay where they are in the Dataset, and
+ * the split is just the two lists of their indices, in row order. Splits are
+ * seeded, so a split repeats for the same data and seed:
+ *
+ * RANDOM puts a random testFraction of the rows into the testing part.
+ *
+ * STRATIFIED does the same class by class, so both parts keep the class
+ * proportions of the data set (within a row per class).
+ *
+ * HASHED decides every row on its own, by a seeded hash of its key - the label of
+ * the row, or its example number. A row lands on the same side whatever other
+ * rows the data set holds, or in what order; rows can also be split this way as
+ * they are read (see isTesting), as out-of-core training does.
+ *
+ * The stratified order of the rows also deals the folds of a CrossValidation.
+ *
+ * @author pandit
+ *
+ * @version 1.0
+ *
+ * Revision Log
+ *
+ * Date       Version        Description
+ ******************************************************************************
+ * 18th Oct    1.0     	First cut at DataSplit - replaces the row by row
+ * 						Math.random () split of the InputProcessor
+ *
+ *             1.1     	The SplitMix64 finalizer is shared as mix
+ ******************************************************************************
+ */
+
+import java.util.Arrays;
+import java.util.Random;
+
+public final class DataSplit {
+
+	/*
+	 * The step SplitMix64 takes between its states - odd, and with its bits spread evenly
+	 */
+	static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	public static final int RANDOM = 0;
+
+	public static final int STRATIFIED = 1;
+
+	public static final int HASHED = 2;
+
+	/*
+	 * The share of the rows tested on when a single data file is given
+	 */
+	public static final double TEST_FRACTION = 1. / 3;
+
+	private final int [] trainingRows;
+
+	private final int [] testingRows;
+
+
+	private DataSplit (final int [] trainingRows, final int [] testingRows) {
+
+		this.trainingRows = trainingRows;
+
+		this.testingRows = testingRows;
+	}
+
+	/**
+	 * Splits rows of a data set
+	 *
+	 * @param data
+	 * @param rows - the rows to split, or null for all the rows of the data set
+	 * @param mode - RANDOM, STRATIFIED or HASHED
+	 * @param testFraction - the share of the rows to test on, in [0, 1]
+	 * @param seed
+	 *
+	 * @return the split
+	 */
+	public static DataSplit split (final Dataset data, final int [] rows, final int mode, final double testFraction, final long seed) {
+
+		if ((testFraction >= 0 && testFraction <= 1) == false) {
+
+			throw new IllegalArgumentException ("testFraction must be in [0, 1], was " + testFraction);
+		}
+
+		int [] order = rows != null ? rows.clone () : data.allRows ();
+
+		boolean [] testing = new boolean [order.length];
+
+		if (mode == HASHED) {
+
+			for (int i = 0; i < order.length; i++) {
+
+				testing[i] = isTesting (data.label (order[i]), testFraction, seed);
+			}
+
+		} else if (mode == RANDOM || mode == STRATIFIED) {
+
+			Random random = new Random (seed);
+
+			if (mode == STRATIFIED) {
+
+				stratify (data, order, random);
+
+			} else {
+
+				shuffle (order, 0, order.length, random);
+			}
+
+			// every 1 / testFraction-th row of the order is tested on - spread over all the classes
+			for (int i = 0; i < order.length; i++) {
+
+				testing[i] = Math.floor ((i + 1) * testFraction) > Math.floor (i * testFraction);
+			}
+
+		} else {
+
+			throw new IllegalArgumentException ("Unknown split mode " + mode);
+		}
+
+		int numtesting = 0;
+
+		for (int i = 0; i < order.length; i++) {
+
+			if (testing[i]) {
+
+				numtesting = numtesting + 1;
+			}
+		}
+
+		int [] trainingRows = new int [order.length - numtesting];
+
+		int [] testingRows = new int [numtesting];
+
+		int numtraining = 0;
+
+		numtesting = 0;
+
+		for (int i = 0; i < order.length; i++) {
+
+			if (testing[i]) {
+
+				testingRows[numtesting] = order[i];
+
+				numtesting = numtesting + 1;
+
+			} else {
+
+				trainingRows[numtraining] = order[i];
+
+				numtraining = numtraining + 1;
+			}
+		}
+
+		Arrays.sort (trainingRows);
+
+		Arrays.sort (testingRows);
+
+		return new DataSplit (trainingRows, testingRows);
+	}
+
+	/**
+	 * Deals rows of a data set into folds of about the same class proportions
+	 *
+	 * @param data
+	 * @param rows - the rows to deal
+	 * @param numFolds
+	 * @param seed
+	 *
+	 * @return the fold of every row, by its position in rows
+	 */
+	public static int [] folds (final Dataset data, final int [] rows, final int numFolds, final long seed) {
+
+		int [] positions = new int [rows.length];
+
+		for (int i = 0; i < rows.length; i++) {
+
+			positions[i] = i;
+		}
+
+		int [] classColumn = data.columns[data.numAttributes - 1];
+
+		// the positions are stratified by the class of their rows
+		int [] classes = new int [rows.length];
+
+		for (int i = 0; i < rows.length; i++) {
+
+			classes[i] = classColumn[rows[i]];
+		}
+
+		stratify (classes, positions, new Random (seed));
+
+		int [] folds = new int [rows.length];
+
+		// dealing on from where the last class stopped keeps the folds within a row of each other
+		for (int i = 0; i < positions.length; i++) {
+
+			folds[positions[i]] = i % numFolds;
+		}
+
+		return folds;
+	}
+
+	/**
+	 * Decides a row on its own: whether it falls in the testing part of a HASHED split
+	 *
+	 * @param key - the label of the row (see Dataset.label)
+	 * @param testFraction
+	 * @param seed
+	 */
+	public static boolean isTesting (final String key, final double testFraction, final long seed) {
+
+		long hash = mix (key.hashCode () * GOLDEN_GAMMA + seed);
+
+		return (hash >>> 11) * 0x1.0p-53 < testFraction;
+	}
+
+	/**
+	 * The finalizer of SplitMix64: spreads the bits of a value over the whole long, so
+	 * that values close together come out unrelated
+	 */
+	static long mix (final long value) {
+
+		long z = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Orders rows class by class, in class order, with the rows of each class shuffled
+	 */
+	private static void stratify (final Dataset data, final int [] rows, final Random random) {
+
+		int [] classColumn = data.columns[data.numAttributes - 1];
+
+		int [] classes = new int [rows.length];
+
+		for (int i = 0; i < rows.length; i++) {
+
+			classes[i] = classColumn[rows[i]];
+		}
+
+		stratify (classes, rows, random);
+	}
+
+	/**
+	 * Orders items class by class, in class order, with the items of each class shuffled
+	 *
+	 * @param classes - the class of every item, by position
+	 * @param items - reordered in place
+	 * @param random
+	 */
+	private static void stratify (final int [] classes, final int [] items, final Random random) {
+
+		int numClasses = 0;
+
+		for (int i = 0; i < classes.length; i++) {
+
+			numClasses = Math.max (numClasses, classes[i] + 1);
+		}
+
+		int [] bounds = new int [numClasses + 1];
+
+		for (int i = 0; i < classes.length; i++) {
+
+			bounds[classes[i] + 1]++;
+		}
+
+		for (int c = 0; c < numClasses; c++) {
+
+			bounds[c + 1] += bounds[c];
+		}
+
+		int [] next = Arrays.copyOf (bounds, numClasses);
+
+		int [] grouped = new int [items.length];
+
+		for (int i = 0; i < items.length; i++) {
+
+			grouped[next[classes[i]]] = items[i];
+
+			next[classes[i]]++;
+		}
+
+		for (int c = 0; c < numClasses; c++) {
+
+			shuffle (grouped, bounds[c], bounds[c + 1], random);
+		}
+
+		System.arraycopy (grouped, 0, items, 0, items.length);
+	}
+
+	/**
+	 * Shuffles items[from] .. items[to - 1] in place (Fisher-Yates)
+	 */
+	private static void shuffle (final int [] items, final int from, final int to, final Random random) {
+
+		for (int i = to - 1; i > from; i--) {
+
+			int pick = from + random.nextInt (i - from + 1);
+
+			int swap = items[i];
+
+			items[i] = items[pick];
+
+			items[pick] = swap;
+		}
+	}
+
+	/**
+	 * @return the indices of the training rows, in row order - not to be modified
+	 */
+	public int [] getTrainingRows () {
+
+		return this.trainingRows;
+	}
+
+	/**
+	 * @return the indices of the testing rows, in row order - not to be modified
+	 */
+	public int [] getTestingRows () {
+
+		return this.testingRows;
+	}
+}
@@ -0,0 +1,239 @@
+/**
+ * <code>Dataset</code> provides a column-major store for an encoded data set.
+ * Every attribute (including the class attribute) is held in its own primitive
+ * column, indexed by row, so that the tree nodes can refer to rows by index
+ * instead of holding on to per-row objects.
+ *
+ * @author pandit
+ *
+ * @version 1.0
+ *
+ * Revision Log
+ *
+ * Date       Version        Description
+ ******************************************************************************
+ * 18th Oct    1.0     	First cut at Dataset - replaces Vector of DataPoints
+ *
+ *             1.1     	Numeric attributes are held as double columns
+ *
+ *             1.2     	Implements RowSink
+ ******************************************************************************
+ */
+
+import java.util.Arrays;
+
+class Dataset implements RowSink {
+
+	private static final int INITIAL_CAPACITY = 1024;
+
+	public int numAttributes;
+
+	public int numRows;
+
+	/*
+	 * columns[attribute][row] holds the encoded (domain index) value - null for a numeric attribute
+	 */
+	public int [][] columns;
+
+	/*
+	 * numericColumns[attribute][row] holds the value of a numeric attribute (NaN where
+	 * the file had a '?') - null for a symbolic attribute, and altogether null when 
+	 * there are no numeric attributes
+	 */
+	public double [][] numericColumns;
+
+	/*
+	 * The example number of each row in its source file - used for the "Example#N" labels
+	 */
+	public int [] ids;
+
+	/*
+	 * The explicit label of each row, if the names file declares a label field; null otherwise
+	 */
+	public String [] labels;
+
+
+	public Dataset (final int numAttributes, final boolean hasLabels) {
+
+		this (numAttributes, hasLabels, null);
+	}
+
+	/**
+	 * @param numeric - flags the numeric attributes, or null if there are none
+	 */
+	public Dataset (final int numAttributes, final boolean hasLabels, final boolean [] numeric) {
+
+		this.numAttributes = numAttributes;
+
+		columns = new int [numAttributes][];
+
+		if (numeric != null) {
+
+			numericColumns = new double [numAttributes][];
+		}
+
+		for (int i = 0; i < numAttributes; i++) {
+
+			if (numeric != null && numeric[i]) {
+
+				numericColumns[i] = new double [INITIAL_CAPACITY];
+
+			} else {
+
+				columns[i] = new int [INITIAL_CAPACITY];
+			}
+		}
+
+		ids = new int [INITIAL_CAPACITY];
+
+		if (hasLabels) {
+
+			labels = new String [INITIAL_CAPACITY];
+		}
+	}
+
+	/**
+	 * Appends a row to the data set. The passed values are copied, so the
+	 * caller can re-use the array for the next row.
+	 *
+	 * @param values - the encoded value of each attribute
+	 * @param id - the example number of the row in its source file
+	 * @param label - the explicit label of the row, or null
+	 *
+	 * @return the index of the added row
+	 */
+	public int addRow (final int [] values, final int id, final String label) {
+
+		return addRow (values, null, id, label);
+	}
+
+	/**
+	 * Appends a row having numeric attributes
+	 *
+	 * @param values - the encoded value of each symbolic attribute
+	 * @param numericValues - the value of each numeric attribute
+	 * @param id
+	 * @param label
+	 *
+	 * @return the index of the added row
+	 */
+	public int addRow (final int [] values, final double [] numericValues, final int id, final String label) {
+
+		if (numRows == ids.length) {
+
+			grow ();
+		}
+
+		for (int i = 0; i < numAttributes; i++) {
+
+			if (columns[i] != null) {
+
+				columns[i][numRows] = values[i];
+
+			} else {
+
+				numericColumns[i][numRows] = numericValues[i];
+			}
+		}
+
+		ids[numRows] = id;
+
+		if (labels != null) {
+
+			labels[numRows] = label;
+		}
+
+		numRows = numRows + 1;
+
+		return numRows - 1;
+	}
+
+	public int value (final int row, final int attribute) {
+
+		return columns[attribute][row];
+	}
+
+	public double numericValue (final int row, final int attribute) {
+
+		return numericColumns[attribute][row];
+	}
+
+	public boolean isNumeric (final int attribute) {
+
+		return columns[attribute] == null;
+	}
+
+	public String label (final int row) {
+
+		if (labels != null) {
+
+			return labels[row];
+		}
+
+		return "Example#" + ids[row];
+	}
+
+	/**
+	 * @return a fresh array holding the indices of all the rows, in order
+	 */
+	public int [] allRows () {
+
+		int [] rows = new int [numRows];
+
+		for (int i = 0; i < numRows; i++) {
+
+			rows[i] = i;
+		}
+
+		return rows;
+	}
+
+	/**
+	 * Releases the spare capacity left behind by the doubling in addRow
+	 */
+	public void trim () {
+
+		for (int i = 0; i < numAttributes; i++) {
+
+			if (columns[i] != null) {
+
+				columns[i] = Arrays.copyOf (columns[i], numRows);
+
+			} else {
+
+				numericColumns[i] = Arrays.copyOf (numericColumns[i], numRows);
+			}
+		}
+
+		ids = Arrays.copyOf (ids, numRows);
+
+		if (labels != null) {
+
+			labels = Arrays.copyOf (labels, numRows);
+		}
+	}
+
+	private void grow () {
+
+		int capacity = ids.length * 2;
+
+		for (int i = 0; i < numAttributes; i++) {
+
+			if (columns[i] != null) {
+
+				columns[i] = Arrays.copyOf (columns[i], capacity);
+
+			} else {
+
+				numericColumns[i] = Arrays.copyOf (numericColumns[i], capacity);
+			}
+		}
+
+		ids = Arrays.copyOf (ids, capacity);
+
+		if (labels != null) {
+
+			labels = Arrays.copyOf (labels, capacity);
+		}
+	}
+};
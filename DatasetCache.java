@@ -0,0 +1,513 @@
+/**
+ * <code>DatasetCache</code> keeps the parsed form of a data file in a binary
+ * file next to it (<source>.c5cache), so that later runs can memory-map the
+ * encoded columns instead of parsing the text again.
+ *
+ * The cache holds the file as a single parsed chunk - encoded against its own
+ * symbol tables, exactly as a ChunkParser leaves it - so it does not depend on
+ * which other files were loaded before it; InputProcessor merges it into the
+ * shared domains the same way it merges chunks. A cache is only used while the
+ * data file and the names file have the size and modification time recorded
+ * in it, and the names file still describes the same attributes.
+ *
+ * Layout (big-endian): magic, version, source length / modified, names length /
+ * modified, number of attributes, label position, kind (symbolic / numeric), the
+ * attribute names, each attribute's symbols, the row count, the ids, the labels,
+ * and then the columns - an int column per attribute for a symbolic file, or a
+ * double column per input attribute and the class codes for a linear / nominal one.
+ *
+ * The mapping only spares the parsing: the columns are copied out of it into the
+ * heap arrays a Dataset (or NumericColumns) holds, and the mapping is dropped, so
+ * a data set loaded from its cache takes as much heap as one parsed from text.
+ *
+ * Out of core, the training file is always streamed from its text into the
+ * column files of the DiskDataset, and has no cache; only the testing file, which
+ * is held in memory, is read through one.
+ *
+ * @author pandit
+ *
+ * @version 1.0
+ *
+ * Revision Log
+ *
+ * Date       Version        Description
+ ******************************************************************************
+ * 18th Oct    1.0     	First cut at DatasetCache
+ *
+ *             1.1     	Documented that the columns are copied to the heap, and that
+ * 						out-of-core training files are not cached
+ *
+ *             1.2     	No min / max per attribute - version 2
+ *
+ *             1.3     	The cache is mapped a window at a time, so it can exceed 2GB, and
+ * 						is moved into place atomically
+ ******************************************************************************
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+class DatasetCache {
+
+	public static final String SUFFIX = ".c5cache";
+
+	private static final int MAGIC = 0x43354443;
+
+	/*
+	 * Bump whenever the layout changes - older caches are then ignored and rewritten
+	 */
+	private static final int VERSION = 2;
+
+	private static final Charset UTF8 = Charset.forName ("UTF-8");
+
+	/*
+	 * A cache is mapped a window at a time, as a single mapping cannot exceed 2GB
+	 */
+	public static final int WINDOW_SIZE = 1 << 30;
+
+	/*
+	 * The cache being read, and the window of it mapped - reads past the window re-map it
+	 */
+	private FileChannel channel;
+
+	private long size;
+
+	private long windowStart;
+
+	private MappedByteBuffer buffer;
+
+
+	private DatasetCache (final FileChannel channel) throws IOException {
+
+		this.channel = channel;
+
+		this.size = channel.size ();
+
+		map (0);
+	}
+
+	public static String cacheFile (final String fileName) {
+
+		return fileName + SUFFIX;
+	}
+
+	/**
+	 * Loads the cache of a data file
+	 *
+	 * @param fileName - the data file
+	 * @param namesFile - the names file it is read with
+	 * @param attributeNames - the attributes the names file declares
+	 * @param skipCount - the position of the label field, or -1
+	 * @param numeric - whether the file is a linear / nominal one
+	 *
+	 * @return the file as a single parsed chunk, or null if there is no cache or it is stale
+	 */
+	public static ChunkParser read (final String fileName, final String namesFile, final String [] attributeNames, final int skipCount, final boolean numeric) {
+
+		File cache = new File (cacheFile (fileName));
+
+		if (cache.isFile () == false) {
+
+			return null;
+		}
+
+		File source = new File (fileName);
+
+		File names = new File (namesFile);
+
+		try {
+
+			RandomAccessFile file = new RandomAccessFile (cache, "r");
+
+			try {
+
+				return new DatasetCache (file.getChannel ()).read (fileName, source, names, attributeNames, skipCount, numeric);
+
+			} finally {
+
+				file.close ();
+			}
+
+		} catch (IOException e) {
+
+			System.err.println ("Ignoring unreadable cache " + cache + ": " + e);
+
+			return null;
+
+		} catch (BufferUnderflowException e) {
+
+			System.err.println ("Ignoring truncated cache " + cache);
+
+			return null;
+		}
+	}
+
+	/**
+	 * Reads the cache from its start - see read (String, String, String [], int, boolean)
+	 */
+	private ChunkParser read (final String fileName, final File source, final File names, final String [] attributeNames, final int skipCount, final boolean numeric)
+			throws IOException {
+
+		if (getInt () != MAGIC || getInt () != VERSION) {
+
+			return null;
+		}
+
+		if (getLong () != source.length () || getLong () != source.lastModified ()
+				|| getLong () != names.length () || getLong () != names.lastModified ()) {
+
+			return null;
+		}
+
+		int numAttributes = getInt ();
+
+		if (numAttributes != attributeNames.length || getInt () != skipCount || (getByte () == 1) != numeric) {
+
+			return null;
+		}
+
+		for (int i = 0; i < numAttributes; i++) {
+
+			if (getString ().equals (attributeNames[i]) == false) {
+
+				return null;
+			}
+		}
+
+		SymbolTable [] tables = new SymbolTable [numAttributes];
+
+		for (int i = 0; i < numAttributes; i++) {
+
+			tables[i] = new SymbolTable ();
+
+			int size = getInt ();
+
+			for (int code = 0; code < size; code++) {
+
+				tables[i].intern (getString ());
+			}
+		}
+
+		int numRows = getInt ();
+
+		int [] ids = new int [numRows];
+
+		getInts (ids);
+
+		String [] labels = null;
+
+		if (getByte () == 1) {
+
+			labels = new String [numRows];
+
+			for (int row = 0; row < numRows; row++) {
+
+				labels[row] = getString ();
+			}
+		}
+
+		ChunkParser parsed;
+
+		if (numeric) {
+
+			NumericColumns columns = new NumericColumns (numAttributes - 1, labels != null);
+
+			columns.numRows = numRows;
+
+			columns.ids = ids;
+
+			columns.labels = labels;
+
+			for (int i = 0; i < numAttributes - 1; i++) {
+
+				columns.values[i] = new double [numRows];
+
+				getDoubles (columns.values[i]);
+			}
+
+			columns.classes = new int [numRows];
+
+			getInts (columns.classes);
+
+			parsed = new ChunkParser (null, fileName, 0, -1, tables, columns);
+
+		} else {
+
+			Dataset rows = new Dataset (numAttributes, labels != null);
+
+			rows.numRows = numRows;
+
+			rows.ids = ids;
+
+			rows.labels = labels;
+
+			for (int i = 0; i < numAttributes; i++) {
+
+				rows.columns[i] = new int [numRows];
+
+				getInts (rows.columns[i]);
+			}
+
+			parsed = new ChunkParser (null, fileName, 0, -1, tables, rows);
+		}
+
+		parsed.status = 1;
+
+		return parsed;
+	}
+
+	private void map (final long start) throws IOException {
+
+		windowStart = start;
+
+		buffer = channel.map (FileChannel.MapMode.READ_ONLY, start, Math.min (WINDOW_SIZE, size - start));
+	}
+
+	/**
+	 * Makes sure the next count bytes are in the window, re-mapping it from the current 
+	 * offset if they are not
+	 * 
+	 * @throws BufferUnderflowException if the cache ends before them
+	 */
+	private void require (final int count) throws IOException {
+
+		if (buffer.remaining () >= count) {
+
+			return;
+		}
+
+		long offset = windowStart + buffer.position ();
+
+		if (offset + count > size) {
+
+			throw new BufferUnderflowException ();
+		}
+
+		map (offset);
+	}
+
+	private byte getByte () throws IOException {
+
+		require (1);
+
+		return buffer.get ();
+	}
+
+	private int getInt () throws IOException {
+
+		require (4);
+
+		return buffer.getInt ();
+	}
+
+	private long getLong () throws IOException {
+
+		require (8);
+
+		return buffer.getLong ();
+	}
+
+	private String getString () throws IOException {
+
+		byte [] bytes = new byte [getInt ()];
+
+		for (int done = 0; done < bytes.length; ) {
+
+			require (1);
+
+			int count = Math.min (bytes.length - done, buffer.remaining ());
+
+			buffer.get (bytes, done, count);
+
+			done += count;
+		}
+
+		return new String (bytes, UTF8);
+	}
+
+	/**
+	 * Reads a column of ints, across as many windows as it spans
+	 */
+	private void getInts (final int [] values) throws IOException {
+
+		for (int done = 0; done < values.length; ) {
+
+			require (4);
+
+			int count = Math.min (values.length - done, buffer.remaining () / 4);
+
+			buffer.asIntBuffer ().get (values, done, count);
+
+			buffer.position (buffer.position () + 4 * count);
+
+			done += count;
+		}
+	}
+
+	/**
+	 * Reads a column of doubles, across as many windows as it spans
+	 */
+	private void getDoubles (final double [] values) throws IOException {
+
+		for (int done = 0; done < values.length; ) {
+
+			require (8);
+
+			int count = Math.min (values.length - done, buffer.remaining () / 8);
+
+			buffer.asDoubleBuffer ().get (values, done, count);
+
+			buffer.position (buffer.position () + 8 * count);
+
+			done += count;
+		}
+	}
+
+	/**
+	 * Writes the cache of a data file. The cache is written to a temporary file
+	 * first and renamed into place, so a crashed run never leaves half a cache.
+	 *
+	 * @param parsed - the whole file as a single parsed chunk
+	 *
+	 * @return whether the cache was written
+	 */
+	public static boolean write (final String fileName, final String namesFile, final String [] attributeNames, final int skipCount, final ChunkParser parsed) {
+
+		File cache = new File (cacheFile (fileName));
+
+		File temp = new File (cacheFile (fileName) + ".tmp");
+
+		File source = new File (fileName);
+
+		File names = new File (namesFile);
+
+		boolean numeric = parsed.numericRows != null;
+
+		int numAttributes = attributeNames.length;
+
+		try {
+
+			DataOutputStream out = new DataOutputStream (new BufferedOutputStream (new FileOutputStream (temp), 1 << 16));
+
+			out.writeInt (MAGIC);
+
+			out.writeInt (VERSION);
+
+			out.writeLong (source.length ());
+
+			out.writeLong (source.lastModified ());
+
+			out.writeLong (names.length ());
+
+			out.writeLong (names.lastModified ());
+
+			out.writeInt (numAttributes);
+
+			out.writeInt (skipCount);
+
+			out.writeByte (numeric ? 1 : 0);
+
+			for (int i = 0; i < numAttributes; i++) {
+
+				putString (out, attributeNames[i]);
+			}
+
+			for (int i = 0; i < numAttributes; i++) {
+
+				out.writeInt (parsed.tables[i].size ());
+
+				for (int code = 0; code < parsed.tables[i].size (); code++) {
+
+					putString (out, parsed.tables[i].symbol (code));
+				}
+			}
+
+			int numRows = numeric ? parsed.numericRows.numRows : parsed.rows.numRows;
+
+			int [] ids = numeric ? parsed.numericRows.ids : parsed.rows.ids;
+
+			String [] labels = numeric ? parsed.numericRows.labels : parsed.rows.labels;
+
+			out.writeInt (numRows);
+
+			for (int row = 0; row < numRows; row++) {
+
+				out.writeInt (ids[row]);
+			}
+
+			out.writeByte (labels != null ? 1 : 0);
+
+			if (labels != null) {
+
+				for (int row = 0; row < numRows; row++) {
+
+					putString (out, labels[row]);
+				}
+			}
+
+			if (numeric) {
+
+				NumericColumns columns = parsed.numericRows;
+
+				for (int i = 0; i < numAttributes - 1; i++) {
+
+					for (int row = 0; row < numRows; row++) {
+
+						out.writeDouble (columns.values[i][row]);
+					}
+				}
+
+				for (int row = 0; row < numRows; row++) {
+
+					out.writeInt (columns.classes[row]);
+				}
+
+			} else {
+
+				for (int i = 0; i < numAttributes; i++) {
+
+					int [] column = parsed.rows.columns[i];
+
+					for (int row = 0; row < numRows; row++) {
+
+						out.writeInt (column[row]);
+					}
+				}
+			}
+
+			out.close ();
+
+			// replaces any older cache in one step - there is always a whole cache, old or new
+			Files.move (temp.toPath (), cache.toPath (), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+			return true;
+
+		} catch (IOException e) {
+
+			System.err.println ("Unable to write the cache " + cache + ": " + e);
+
+			temp.delete ();
+
+			return false;
+		}
+	}
+
+	private static void putString (final DataOutputStream out, final String value) throws IOException {
+
+		byte [] bytes = value.getBytes (UTF8);
+
+		out.writeInt (bytes.length);
+
+		out.write (bytes);
+	}
+}
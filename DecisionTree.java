@@ -1,6 +1,6 @@
 /**
  * <code>DecisionTree</code> class provides the key implementation of building a decision
- * tree using the TreeNode and DataPoint instances.
+ * tree using the TreeNode and Dataset instances.
  *
  * @author pandit
  * 
@@ -13,11 +13,76 @@
  * 17th Nov    1.0     	First cut at DecisionTree
  * 
  * 18th Nov	   1.1		Added code for Max-Gain
+ * 
+ * 18th Oct    1.2      Induction now works on row indices into a columnar Dataset
+ * 
+ *             1.3      Split selection from a single-pass contingency table
+ * 
+ *             1.4      Children partition their parent's rows in place
+ * 
+ *             1.5      Parallel induction on a ForkJoinPool
+ * 
+ *             1.6      Trained tree is exposed as an immutable TreeModel for prediction
+ * 
+ *             1.7      Leaf distributions and majority labels computed during induction
+ * 
+ *             1.8      categorize indexes the children directly by the encoded value
+ * 
+ *             1.9      The model is compiled into a flat array form
+ * 
+ *             1.10     Domains are SymbolTables
+ * 
+ *             1.11     Parallelism is shared with the InputProcessor for loading
+ * 
+ *             1.12     Optional binary cache of the parsed data files
+ * 
+ *             1.13     Binary threshold splits on numeric attributes, found by a sweep
+ *                      over per-attribute presorted rows
+ * 
+ *             1.14     Optional histogram split finding over quantized numeric attributes
+ * 
+ *             1.15     Out-of-core training - level-wise induction over a DiskDataset,
+ *                      with one sequential scan per tree level
+ * 
+ *             1.16     In-memory induction is level-wise too, over an explicit frontier,
+ *                      and maxDepth limits the tree itself rather than just its display
+ * 
+ *             1.17     Stopping criteria: minimum rows per child, minimum information
+ *                      gain and maximum number of leaves
+ * 
+ *             1.18     The attributes used above a node are a bitset handed down from
+ *                      its parent, instead of a walk up the parent pointers
+ * 
+ *             1.19     Trees can be induced over a sample of the training rows, with a
+ *                      random subset of the attributes at each split, for RandomForest
+ * 
+ *             1.20     displayResults shows the results of an ensemble on the testing set
+ * 
+ *             1.21     A single data file is split by index with a seeded DataSplit,
+ *                      after it is read
+ * 
+ *             1.22     The histogram split search works over a pluggable SplitStatistic,
+ *                      so GradientBoosting grows its trees with it too
+ * 
+ *             1.23     The bins can be computed from any rows, e.g. those a fold trains on
+ * 
+ *             1.24     The holdout of a single data file can be skipped, to cross-validate
+ *                      over all its rows
+ * 
+ *             1.25     The histogram search takes its scratch space from the caller - once
+ *                      per node and range of attributes, not per attribute
+ * 
+ *             1.26     The induction pool is shut down however the induction ends
  ******************************************************************************
  */
 
-import java.util.Iterator;
-import java.util.Vector;
+import java.io.IOException;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class DecisionTree {
 
@@ -25,11 +90,34 @@ public class DecisionTree {
 
 	private String [] attributeNames;
 
-	private Vector [] domains;
+	private SymbolTable [] domains;
+	
+	private Dataset trainingSet;
+	
+	private Dataset testingSet;
+	
+	/*
+	 * The rows of trainingSet the tree is induced on, and of testingSet it is tested on - 
+	 * null for all of them. When a single data file is given, both sets are the rows of 
+	 * that file, split by splitMode (see DataSplit) with splitSeed.
+	 */
+	private int [] trainingRows;
+	
+	private int [] testingRows;
+	
+	private int splitMode = DataSplit.STRATIFIED;
+	
+	private long splitSeed = 1;
+	
+	/*
+	 * Whether a single data file is split at all - if not, both sets are all its rows 
+	 * (see CrossValidation). In memory only: out of core, the rows are split as they are read.
+	 */
+	private boolean holdout = true;
 	
 	private TreeNode trainingRoot;
 	
-	private TreeNode testingRoot;
+	private TreeModel model;
 	
 	private String namesFile;
 	
@@ -43,8 +131,127 @@ public class DecisionTree {
 	
 	private boolean debug;
 	
+	/*
+	 * The most splits on a path from the root - a node this deep becomes a leaf
+	 */
 	private int maxDepth;
 	
+	/*
+	 * Layout of the attribute x value x class contingency table - see countValues
+	 */
+	private int [] tableOffsets;
+	
+	private int numClasses;
+	
+	/*
+	 * Numeric attributes only: sortedRows[a] holds the training rows sorted by their value 
+	 * of a ('?' last). Every split partitions these arrays the same way as the rows of the 
+	 * node, stably, so rows start .. end - 1 of a node stay sorted in each of them.
+	 */
+	private int [][] sortedRows;
+	
+	/*
+	 * The child every row of a node being split on a threshold goes to, indexed by row
+	 */
+	private int [] branch;
+	
+	/*
+	 * xLogXTable[n] = n ln n, for the threshold sweeps - see xLogX
+	 */
+	private double [] xLogXTable;
+	
+	/*
+	 * The largest n ln n tabulated for out-of-core training, where a table covering every 
+	 * row count would take the memory the training rows were kept out of
+	 */
+	private static final int MAX_XLOGX_TABLE = 1 << 20;
+	
+	/*
+	 * The least decrease in entropy a threshold split has to bring
+	 */
+	private static final double MIN_THRESHOLD_GAIN = 1e-9;
+	
+	/*
+	 * Stopping criteria: a split has to leave every child that gets rows at least 
+	 * minLeafSize of them, and decrease the entropy by at least minGain; no split is 
+	 * made that would take the tree past maxLeaves leaves
+	 */
+	private int minLeafSize = 1;
+	
+	private double minGain = 0;
+	
+	private int maxLeaves = Integer.MAX_VALUE;
+	
+	/*
+	 * The number of leaves of the tree being induced - every node not split (yet) counts
+	 */
+	private int numLeaves;
+	
+	/*
+	 * The number of attributes drawn at random as the candidates of each split - 0 for all
+	 * of them - and the generator they are drawn with; see induceSample
+	 */
+	private int featureSubset = 0;
+	
+	private Random random;
+	
+	/*
+	 * The number of bins the numeric attributes are quantized into for histogram 
+	 * split finding - 0 to find the exact best thresholds over presorted rows
+	 */
+	private int histogramBins = 0;
+	
+	/*
+	 * Histogram split finding only: the bins of every numeric attribute, and the layout 
+	 * of the node histograms - the rows of the node in bin b of attribute a with class c 
+	 * are counted at histogramOffsets[a] + b * numClasses + c (see ClassCounts)
+	 */
+	private NumericBins [] bins;
+	
+	private int [] histogramOffsets;
+	
+	private int histogramSize;
+	
+	private SplitStatistic classCounts;
+	
+	/*
+	 * The histogram cells held by the children of the nodes expanded so far on the 
+	 * current level - see splitHistogram
+	 */
+	private AtomicLong retainedHistogramCells = new AtomicLong ();
+	
+	/*
+	 * The number of worker threads used for induction - 1 keeps it all on the calling thread
+	 */
+	private int parallelism = Runtime.getRuntime ().availableProcessors ();
+	
+	/*
+	 * Nodes with fewer rows than this are induced serially, subtree and all
+	 */
+	public static final int PARALLEL_THRESHOLD = 8192;
+	
+	/*
+	 * Whether the InputProcessor keeps / loads a DatasetCache next to each data file
+	 */
+	private boolean dataCache = false;
+	
+	/*
+	 * Out-of-core training only: the directory the training rows are kept in, and the 
+	 * rows themselves - trainingSet then stays empty
+	 */
+	private String outOfCoreDirectory;
+	
+	private DiskDataset trainingStore;
+	
+	/*
+	 * The most counts held for the open nodes of a level: out of core, the contingency 
+	 * tables and histograms gathered by a single scan of the training rows - a level 
+	 * with more open nodes than fit is scanned in several batches; in memory, the
+	 * histograms handed down to the next level. A histogram cell is a double, and 
+	 * counts as two.
+	 */
+	public static final int MAX_LEVEL_CELLS = 1 << 25;
+	
 	
 	public DecisionTree (final String namesFile, final String trainingDataFile, final String testingDataFile, final int maxDepth, final boolean debug) {
 		
@@ -59,26 +266,172 @@ public class DecisionTree {
 		this.debug = debug;
 	}
 	
+	/**
+	 * Creates a learner sharing the loaded data and the training settings of another
+	 * tree - the data set is only read during induction, so several learners can 
+	 * induce trees over it at once (see induceSample)
+	 */
+	public DecisionTree (final DecisionTree data) {
+		
+		this (data.namesFile, data.trainingDataFile, data.testingDataFile, data.maxDepth, false);
+		
+		this.numAttributes = data.numAttributes;
+		
+		this.attributeNames = data.attributeNames;
+		
+		this.domains = data.domains;
+		
+		this.trainingSet = data.trainingSet;
+		
+		this.testingSet = data.testingSet;
+		
+		this.trainingRows = data.trainingRows;
+		
+		this.testingRows = data.testingRows;
+		
+		this.histogramBins = data.histogramBins;
+		
+		this.minLeafSize = data.minLeafSize;
+		
+		this.minGain = data.minGain;
+		
+		this.maxLeaves = data.maxLeaves;
+		
+		this.bins = data.bins;
+		
+		this.histogramOffsets = data.histogramOffsets;
+		
+		this.histogramSize = data.histogramSize;
+		
+		this.parallelism = 1;
+	}
+	
 	public void process () throws Exception {
 		
+		load ();
+
+		// create and display the decision tree induced on the trainingRoot
+		createDecisionTree ();
+	}
+	
+	public void load () throws Exception {
+		
 		/**********************************************************************
 		 * This call handles all the input processing including splitting the * 
 		 * training data, if required, in case when the testing data set is   *
 		 * not given. In that case, it splits the data into 2/3rd - 1/3rd,    *
-		 * if testingDataFile is set to "SPLIT".  							  *
+		 * if testingDataFile is set to "SPLIT" - see DataSplit.			  *
 		 **********************************************************************/		
 		
 		new InputProcessor (this);
 		
-		/**********************************************************************/
+		// out of core, the rows were split as they were read (see DataSplit.isTesting)
+		if (testingDataFile.equals ("SPLIT") && trainingStore == null) {
+			
+			testingSet = trainingSet;
+			
+			if (holdout) {
+				
+				DataSplit split = DataSplit.split (trainingSet, null, splitMode, DataSplit.TEST_FRACTION, splitSeed);
+				
+				trainingRows = split.getTrainingRows ();
+				
+				testingRows = split.getTestingRows ();
+			}
+		}
+	}
+	
+	/**
+	 * Induces a tree over a sample of the training rows, on the calling thread, without
+	 * displaying or testing it
+	 * 
+	 * @param rows - the training rows to induce over; may repeat rows, as a bootstrap 
+	 * 		  sample does. Reordered in place.
+	 * @param random - draws the candidate attributes of each split
+	 * @param featureSubset - the number of candidate attributes of each split, 0 for all
+	 * 
+	 * @return the model of the tree
+	 */
+	public TreeModel induceSample (final int [] rows, final Random random, final int featureSubset) {
+		
+		this.random = random;
+		
+		this.featureSubset = featureSubset;
+		
+		computeTableLayout ();
+		
+		TreeNode root = new TreeNode (rows, 0, rows.length);
+		
+		trainingRoot = root;
+		
+		prepareThresholds ();
+		
+		induce (root, null);
+		
+		sortedRows = null;
 
-		// create and display the decision tree induced on the trainingRoot
-		createDecisionTree ();
+		branch = null;
+
+		xLogXTable = null;
+		
+		trainingRoot = null;
+		
+		this.random = null;
+		
+		return TreeModel.compile (root, attributeNames, domains);
 	}
 	
-	public void createDecisionTree () {
+	public void createDecisionTree () throws IOException {
+
+		computeTableLayout ();
+
+		if (trainingStore != null) {
+
+			trainingRoot = new TreeNode (null, 0, trainingStore.numRows);
+
+			induceLevels ();
+
+			trainingStore.delete ();
+
+			trainingStore = null;
+
+		} else {
+
+			int [] rows = getTrainingRows ().clone ();
+			
+			trainingRoot = new TreeNode (rows, 0, rows.length);
+
+			prepareThresholds ();
+
+			if (parallelism > 1 && trainingRoot.size () >= PARALLEL_THRESHOLD) {
+
+				ForkJoinPool pool = new ForkJoinPool (parallelism);
+
+				// the workers are released even if the induction throws
+				try {
+
+					induce (trainingRoot, pool);
+
+				} finally {
+
+					pool.shutdown ();
+				}
+
+			} else {
+
+				induce (trainingRoot, null);
+			}
+		}
+
+		sortedRows = null;
+
+		branch = null;
 
-		induce (trainingRoot);
+		xLogXTable = null;
+
+		bins = null;
+
+		model = TreeModel.compile (trainingRoot, attributeNames, domains);
 
 		new DisplayProcessor (this.maxDepth).displayTree (trainingRoot, "", this.numAttributes, this.attributeNames, this.domains, 1);
 		
@@ -86,24 +439,24 @@ public class DecisionTree {
 		 *  On to the classification of the testing set now  *	
 		 *****************************************************/
 		
-		Iterator panditIterator = testingRoot.data.iterator ();
-			
 		System.out.println ("\n*****************************************************");
 		
 		System.out.println ("\nClassifying Test Data Set");
 		
-		while (panditIterator.hasNext ()) {
+		int [] rows = getTestingRows ();
 		
-			DataPoint spanPoint = (DataPoint) panditIterator.next ();
+		for (int i = 0; i < rows.length; i++) {
+			
+			int row = rows[i];
 			
 			if (debug) {
 				
 				System.out.println ("\n*****************************************************");
 			
-				System.out.println ("Classifying: " + spanPoint.label);
+				System.out.println ("Classifying: " + testingSet.label (row));
 			}
 			
-			categorize (trainingRoot, "", spanPoint);
+			categorize (trainingRoot, "", testingSet, row);
 		}
 		
 		System.out.println ("\n*******************************************************");
@@ -119,270 +472,2165 @@ public class DecisionTree {
 		System.out.println ("\n*******************************************************");
 	}
 	
-	public Vector getSubset (final Vector data, final int attribute, final int value) {
-
-		Vector subset = new Vector ();
-
-		int num = data.size ();
+	/**
+	 * Reorders rows[start] .. rows[end - 1] in place so that the rows are grouped
+	 * by their value in the column, in increasing value order.
+	 * 
+	 * @param rows
+	 * @param start
+	 * @param end
+	 * @param column - the value of every row: an attribute's column, or the branches of a threshold split
+	 * @param numvalues - the number of values
+	 * 
+	 * @return the group boundaries - the rows having value v end up in 
+	 * 		   rows[bounds[v]] .. rows[bounds[v + 1] - 1]
+	 */
+	public int [] partition (final int [] rows, final int start, final int end, final int [] column, final int numvalues) {
+
+		int [] bounds = new int [numvalues + 1];
+
+		for (int i = start; i < end; i++) {
+
+			bounds[column[rows[i]] + 1]++;
+		}
 
-		for (int i = 0; i < num; i++) {
+		bounds[0] = start;
 
-			DataPoint point = (DataPoint) data.elementAt (i);
+		for (int v = 0; v < numvalues; v++) {
 
-			if (point.attributes[attribute] == value) {
-				
-				subset.addElement (point);
-			}
+			bounds[v + 1] += bounds[v];
 		}
 
-		return subset;
-	}
+		// next[v] is the first position of group v not yet known to hold a row of value v
+		int [] next = new int [numvalues];
 
-	public double calculateEntropy (final Vector data) {
+		System.arraycopy (bounds, 0, next, 0, numvalues);
 
-		int numdata = data.size ();
+		for (int v = 0; v < numvalues; v++) {
 
-		if (numdata == 0) {
-		
-			return 0;
-		}
+			while (next[v] < bounds[v + 1]) {
 
-		int attribute = numAttributes - 1;
+				int row = rows[next[v]];
 
-		int numvalues = domains[attribute].size ();
+				int value = column[row];
 
-		double sum = 0;
+				// cycle the misplaced row into its own group until a row of value v turns up
+				while (value != v) {
 
-		for (int i = 0; i < numvalues; i++) {
+					int displaced = rows[next[value]];
 
-			int count = 0;
+					rows[next[value]] = row;
 
-			for (int j = 0; j < numdata; j++) {
+					next[value] = next[value] + 1;
 
-				DataPoint point = (DataPoint) data.elementAt (j);
+					row = displaced;
 
-				if (point.attributes[attribute] == i) {
-				
-					count++;
+					value = column[row];
 				}
-			}
 
-			double probability = ((double) count) / numdata;
-			
-			//System.out.print (probability);
+				rows[next[v]] = row;
 
-			if (count > 0) {
-				
-				sum += -probability * Math.log (probability);
+				next[v] = next[v] + 1;
 			}
 		}
-		
-		return sum;
+
+		return bounds;
 	}
 
-	public boolean alreadyUsedToDecompose (final TreeNode node, final int attribute) {
+	/**
+	 * Groups rows[start] .. rows[end - 1] by their value in the column, like partition,
+	 * but keeps the order of the rows within each group
+	 * 
+	 * @param bounds - the group boundaries, as returned by partition
+	 * @param buffer - scratch space for end - start rows
+	 */
+	public void stablePartition (final int [] rows, final int start, final int end, final int [] column, final int [] bounds, final int [] buffer) {
 
-		if (node.children != null) {
+		int [] next = new int [bounds.length - 1];
 
-			if (node.decompositionAttribute == attribute) {
+		for (int v = 0; v < next.length; v++) {
 
-				return true;
-			}
+			next[v] = bounds[v] - start;
 		}
 
-		if (node.parent == null) {
-		
-			return false;
-		}
+		for (int i = start; i < end; i++) {
 
-		return alreadyUsedToDecompose (node.parent, attribute);
-	}
+			int value = column[rows[i]];
 
-	public void categorize (final TreeNode node, final String tab, final DataPoint data) {
-	
-		int outputattr = numAttributes - 1;
+			buffer[next[value]] = rows[i];
 
-		if (node.children == null) {
+			next[value] = next[value] + 1;
+		}
 
-			int [] values = DisplayProcessor.getAllValues (node.data, outputattr, domains);
+		System.arraycopy (buffer, 0, rows, start, end - start);
+	}
 
-			if (values.length == 1) {
+	/**
+	 * Readies the numeric attributes for threshold split finding, once for the whole
+	 * tree - either presorting them, or quantizing them for histogram split finding
+	 */
+	private void prepareThresholds () {
 
-				if (debug) {
-					
-					System.out.print (" " + domains[outputattr].elementAt (values[0]));
-				}
-				
-				if (domains[outputattr].elementAt (values[0]).equals (domains[outputattr].elementAt (data.attributes[outputattr]))) {
-					
-					correctCount = correctCount + 1; 
-					
-					if (debug) {
-						
-						System.out.print ("\n\n--- Correctly Classified ---");
-					}
-					
-				} else {
-					
-					inCorrectCount = inCorrectCount + 1;
-						
-					System.out.print ("\n" + data.label);
-					
-					System.out.println ("  --- Incorrectly Classified ---");
-				}
-				
-				return;
-			}
+		branch = new int [trainingSet.numRows];
 
-			if (debug) {
-				
-				System.out.print (" {");
-			}
+		tabulateXLogX (trainingSet.numRows);
 
-			for (int i = 0; i < values.length; i++) {
-				
-				if (debug) {
-					
-					System.out.print ("\"" + domains[outputattr].elementAt (values[i]) + "\"");
+		if (histogramBins > 0) {
 
-					if (i != values.length - 1) {
-						
-						System.out.print (" , ");
-					}
-				}
-			}
-			
-			if (debug) {
-				
-				System.out.print (" };");
-			}
+			quantize ();
 
-			return;
+		} else {
+
+			presort ();
 		}
+	}
 
-		int numvalues = node.children.length;
+	/**
+	 * Tabulates n ln n for n = 0 .. size
+	 */
+	private void tabulateXLogX (final int size) {
 
-		for (int i = 0; i < numvalues; i++) {
+		xLogXTable = new double [size + 1];
 
-			if (domains[node.decompositionAttribute].elementAt (i).equals (domains[node.decompositionAttribute].elementAt (data.attributes[node.decompositionAttribute]))) {
-				
-				if (debug) {
-					
-					System.out.print ("\n" + tab + attributeNames[node.decompositionAttribute] + " = " + domains[node.decompositionAttribute].elementAt (i) + ":");
-				}
+		for (int n = 1; n <= size; n++) {
 
-				categorize (node.children[i], tab + ":   ", data);
-				
-				break;
-			}
+			xLogXTable[n] = n * Math.log (n);
 		}
 	}
-	
-	public void induce (final TreeNode node) {
 
-		double bestEntropy = 0;
+	/**
+	 * @return n ln n - from the table, as far as it goes
+	 */
+	double xLogX (final int n) {
 
-		boolean selected = false;
+		return n < xLogXTable.length ? xLogXTable[n] : n * Math.log (n);
+	}
 
-		int selectedAttribute = 0;
+	/**
+	 * Quantizes every numeric attribute and fills the histogram of the root
+	 */
+	private void quantize () {
 
-		int numdata = node.data.size ();
+		if (bins == null) {
 
-		int numinputattributes = numAttributes - 1;
+			quantizeColumns ();
+		}
 
-		node.entropy = calculateEntropy (node.data);
+		trainingRoot.histogram = histogram (trainingRoot.rows, trainingRoot.start, trainingRoot.end);
+	}
 
-		if (node.entropy == 0) {
-		
-			return;
-		}
+	/**
+	 * Computes the bins of every numeric training column, and the histogram layout - the 
+	 * learners created from this tree share them (see RandomForest)
+	 */
+	void quantizeColumns () {
 
-		for (int i = 0; i < numinputattributes; i++) {
+		quantizeColumns (trainingRows);
+	}
 
-			int numvalues = domains[i].size ();
+	/**
+	 * Computes the bins of every numeric training column from some of the rows only, and
+	 * the histogram layout - trees induced on those rows then never see the bounds of the
+	 * others (see CrossValidation)
+	 * 
+	 * @param rows - in increasing order
+	 */
+	void quantizeColumns (final int [] rows) {
 
-			if (alreadyUsedToDecompose (node, i)) {
-			
-				continue;
-			}
+		computeTableLayout ();
 
-			double averageentropy = 0;
+		bins = quantizeColumns (rows, histogramBins);
 
-			for (int j = 0; j < numvalues; j++) {
+		histogramOffsets = new int [numAttributes];
 
-				Vector subset = getSubset (node.data, i, j);
+		histogramSize = layoutHistograms (bins, numClasses, false, histogramOffsets);
+	}
 
-				if (subset.size () == 0) {
-				
-					continue;
-				}
+	/**
+	 * Quantizes every numeric training column
+	 * 
+	 * @param rows - the rows the bin bounds are gathered from, in increasing order; null for all of them
+	 * @param maxBins
+	 * 
+	 * @return the bins of every attribute - null for a symbolic one
+	 */
+	NumericBins [] quantizeColumns (final int [] rows, final int maxBins) {
+
+		NumericBins [] columnBins = new NumericBins [numAttributes];
 
-				double subentropy = calculateEntropy (subset);
+		for (int i = 0; i < numAttributes - 1; i++) {
 
-				averageentropy += subentropy * 	subset.size ();
+			if (trainingSet.isNumeric (i)) {
+
+				columnBins[i] = NumericBins.quantize (trainingSet.numericColumns[i], trainingSet.numRows, rows, maxBins);
 			}
+		}
 
-			averageentropy = averageentropy / numdata;
+		return columnBins;
+	}
 
-			if (selected == false) {
+	/**
+	 * Lays out the histograms of a histogram split search: the cells of attribute a start
+	 * at offsets[a] - one cell per bin of a numeric attribute, and one more for its '?'s, 
+	 * and one per value of a symbolic attribute
+	 * 
+	 * @param columnBins - the bins of every attribute, as returned by quantizeColumns
+	 * @param cellSize - the number of doubles in a cell (see SplitStatistic)
+	 * @param symbolic - whether the symbolic attributes get cells too - if not, their offset is -1
+	 * @param offsets - receives the offset of every input attribute
+	 * 
+	 * @return the number of doubles in a histogram
+	 */
+	int layoutHistograms (final NumericBins [] columnBins, final int cellSize, final boolean symbolic, final int [] offsets) {
 
-				selected = true;
+		int size = 0;
 
-				bestEntropy = averageentropy;
+		for (int a = 0; a < numAttributes - 1; a++) {
 
-				selectedAttribute = i;
+			offsets[a] = -1;
 
-			} else {
+			if (columnBins[a] != null) {
 
-				if (averageentropy < bestEntropy) {
+				offsets[a] = size;
 
-					selected = true;
+				size += (columnBins[a].numBins + 1) * cellSize;
 
-					bestEntropy = averageentropy;
+			} else if (symbolic) {
 
-					selectedAttribute = i;
-				}
+				offsets[a] = size;
 
+				size += domains[a].size () * cellSize;
 			}
-			/*
-			 * if ( alreadyUsedToDecompose(node, i) ) continue;
-			 * 
-			 * selectedAttribute = i; selected = true; break;
-			 */
 		}
 
-		if (selected == false) {
-			
-			return;
-		}
+		return size;
+	}
 
-		int numvalues = domains[selectedAttribute].size ();
+	/**
+	 * @return the histogram of the numeric attributes over rows[start] .. rows[end - 1]
+	 */
+	private double [] histogram (final int [] rows, final int start, final int end) {
 
-		node.decompositionAttribute = selectedAttribute;
+		return histogram (classCounts, bins, histogramOffsets, histogramSize, rows, start, end, null);
+	}
 
-		node.children = new TreeNode [numvalues];
+	/**
+	 * Sums up the statistic of rows[start] .. rows[end - 1] into a histogram
+	 * 
+	 * @param statistic
+	 * @param columnBins - the bins of every attribute, as returned by quantizeColumns
+	 * @param offsets - the layout of the histogram, as given by layoutHistograms
+	 * @param size - the number of doubles in the histogram
+	 * @param skip - a bitset of the attributes left at zero, or null
+	 * 
+	 * @return the histogram
+	 */
+	double [] histogram (final SplitStatistic statistic, final NumericBins [] columnBins, final int [] offsets, final int size,
+			final int [] rows, final int start, final int end, final long [] skip) {
 
-		for (int j = 0; j < numvalues; j++) {
+		double [] histogram = new double [size];
 
-			node.children[j] = new TreeNode ();
+		for (int a = 0; a < numAttributes - 1; a++) {
 
-			node.children[j].parent = node;
+			if (offsets[a] < 0 || contains (skip, a)) {
 
-			node.children[j].data = getSubset (node.data,
+				continue;
+			}
 
-			selectedAttribute, j);
+			if (columnBins[a] != null) {
 
-			node.children[j].decompositionValue = j;
-		}
+				statistic.add (histogram, offsets[a], columnBins[a].codes, rows, start, end);
 
-		for (int j = 0; j < numvalues; j++) {
+			} else {
 
-			induce (node.children[j]);
+				statistic.add (histogram, offsets[a], trainingSet.columns[a], rows, start, end);
+			}
 		}
 
-		node.data = null;
+		return histogram;
 	}
-		
+
+	/**
+	 * Gives the children of a node just split their histograms, unless the next level
+	 * already holds MAX_LEVEL_CELLS of histograms - the children then get none, and 
+	 * count their own when they are expanded
+	 */
+	private void splitHistogram (final TreeNode node, final int [] bounds) {
+
+		long cells = 2L * node.children.length * histogramSize;
+
+		if (retainedHistogramCells.addAndGet (cells) > MAX_LEVEL_CELLS) {
+
+			retainedHistogramCells.addAndGet (-cells);
+
+			node.histogram = null;
+
+			return;
+		}
+
+		double [][] histograms = childHistograms (classCounts, bins, histogramOffsets, histogramSize, node.histogram, node.rows, bounds, null);
+
+		for (int j = 0; j < node.children.length; j++) {
+
+			node.children[j].histogram = histograms[j];
+		}
+
+		node.histogram = null;
+	}
+
+	/**
+	 * Gives the children of a split their histograms: all but the largest child are 
+	 * summed up from their rows, and the largest gets what is left of the parent's 
+	 * histogram once theirs are taken away - so the rows of the largest child are 
+	 * never read
+	 * 
+	 * @param histogram - the parent's histogram; becomes the largest child's
+	 * @param rows
+	 * @param bounds - the rows of each child, as returned by partition
+	 * 
+	 * @return the histogram of every child - null for an empty one
+	 */
+	double [][] childHistograms (final SplitStatistic statistic, final NumericBins [] columnBins, final int [] offsets, final int size,
+			final double [] histogram, final int [] rows, final int [] bounds, final long [] skip) {
+
+		int numChildren = bounds.length - 1;
+
+		int largest = 0;
+
+		for (int j = 1; j < numChildren; j++) {
+
+			if (bounds[j + 1] - bounds[j] > bounds[largest + 1] - bounds[largest]) {
+
+				largest = j;
+			}
+		}
+
+		double [][] histograms = new double [numChildren][];
+
+		for (int j = 0; j < numChildren; j++) {
+
+			if (j == largest || bounds[j + 1] == bounds[j]) {
+
+				continue;
+			}
+
+			histograms[j] = histogram (statistic, columnBins, offsets, size, rows, bounds[j], bounds[j + 1], skip);
+
+			for (int k = 0; k < size; k++) {
+
+				histogram[k] -= histograms[j][k];
+			}
+		}
+
+		histograms[largest] = histogram;
+
+		return histograms;
+	}
+
+	/**
+	 * Sorts the rows of the root by the value of every numeric attribute, once for the whole tree
+	 */
+	private void presort () {
+
+		sortedRows = new int [numAttributes][];
+
+		int [] buffer = new int [trainingRoot.size ()];
+
+		for (int i = 0; i < numAttributes - 1; i++) {
+
+			if (trainingSet.isNumeric (i)) {
+
+				sortedRows[i] = trainingRoot.rows.clone ();
+
+				sortByValue (sortedRows[i], trainingSet.numericColumns[i], buffer);
+			}
+		}
+	}
+
+	/**
+	 * Sorts the rows by their value in the column - a bottom-up merge sort, with
+	 * NaN ordered after every number
+	 */
+	private static void sortByValue (final int [] rows, final double [] column, final int [] buffer) {
+
+		int n = rows.length;
+
+		int [] from = rows;
+
+		int [] to = buffer;
+
+		for (int width = 1; width < n; width = width * 2) {
+
+			for (int low = 0; low < n; low += 2 * width) {
+
+				int middle = Math.min (low + width, n);
+
+				int high = Math.min (low + 2 * width, n);
+
+				int i = low;
+
+				int j = middle;
+
+				for (int k = low; k < high; k++) {
+
+					if (i < middle && (j == high || Double.compare (column[from[i]], column[from[j]]) <= 0)) {
+
+						to[k] = from[i++];
+
+					} else {
+
+						to[k] = from[j++];
+					}
+				}
+			}
+
+			int [] swap = from;
+
+			from = to;
+
+			to = swap;
+		}
+
+		if (from != rows) {
+
+			System.arraycopy (from, 0, rows, 0, n);
+		}
+	}
+
+	public double calculateEntropy (final int [] rows, final int start, final int end) {
+
+		return entropy (countClasses (rows, start, end), 0, numClasses, end - start);
+	}
+
+	/**
+	 * @return the number of rows of each class among rows[start] .. rows[end - 1]
+	 */
+	public int [] countClasses (final int [] rows, final int start, final int end) {
+
+		int [] counts = new int [domains[numAttributes - 1].size ()];
+
+		int [] column = trainingSet.columns[numAttributes - 1];
+
+		for (int i = start; i < end; i++) {
+
+			counts[column[rows[i]]]++;
+		}
+
+		return counts;
+	}
+
+	/**
+	 * @return the class with the highest count - the lowest class index wins a tie
+	 */
+	public static int majority (final int [] counts) {
+
+		int best = 0;
+
+		for (int i = 1; i < counts.length; i++) {
+
+			if (counts[i] > counts[best]) {
+
+				best = i;
+			}
+		}
+
+		return best;
+	}
+
+	/**
+	 * Turns the node into a leaf: keeps the classes present among its rows and
+	 * their counts, and lets go of the rows themselves
+	 */
+	public void makeLeaf (final TreeNode node, final int [] counts) {
+
+		int numpresent = 0;
+
+		for (int i = 0; i < counts.length; i++) {
+
+			if (counts[i] > 0) {
+
+				numpresent = numpresent + 1;
+			}
+		}
+
+		node.leafClasses = new int [numpresent];
+
+		node.leafCounts = new int [numpresent];
+
+		int index = 0;
+
+		for (int i = 0; i < counts.length; i++) {
+
+			if (counts[i] > 0) {
+
+				node.leafClasses[index] = i;
+
+				node.leafCounts[index] = counts[i];
+
+				index = index + 1;
+			}
+		}
+
+		node.rows = null;
+
+		node.histogram = null;
+	}
+
+	/**
+	 * Computes the entropy of a class distribution held in a count array
+	 * 
+	 * @param counts
+	 * @param offset - index of the count of the first class
+	 * @param numvalues - the number of classes
+	 * @param numdata - the sum of the counts
+	 * 
+	 * @return the entropy
+	 */
+	public static double entropy (final int [] counts, final int offset, final int numvalues, final int numdata) {
+
+		if (numdata == 0) {
+		
+			return 0;
+		}
+
+		double sum = 0;
+
+		for (int i = 0; i < numvalues; i++) {
+
+			int count = counts[offset + i];
+
+			double probability = ((double) count) / numdata;
+
+			if (count > 0) {
+				
+				sum += -probability * Math.log (probability);
+			}
+		}
+		
+		return sum;
+	}
+
+	/**
+	 * Lays out the contingency table used by countValues: the counts for attribute a,
+	 * value v and class c live at tableOffsets[a] + v * numClasses + c, and the class
+	 * distribution of the node itself lives at tableOffsets[numAttributes - 1] + c.
+	 */
+	private void computeTableLayout () {
+
+		numClasses = domains[numAttributes - 1].size ();
+
+		classCounts = new ClassCounts (this, trainingSet.columns[numAttributes - 1], numClasses);
+
+		tableOffsets = new int [numAttributes];
+
+		int offset = 0;
+
+		for (int i = 0; i < numAttributes - 1; i++) {
+
+			tableOffsets[i] = offset;
+
+			offset += domains[i].size () * numClasses;
+		}
+
+		tableOffsets[numAttributes - 1] = offset;
+	}
+
+	/**
+	 * Fills the attribute x value x class contingency table for the rows of a node,
+	 * reading every column once. Attributes in skip are left at zero. The
+	 * numeric attributes are swept for their best threshold instead - see findThreshold.
+	 * 
+	 * @param node
+	 * @param skip - a bitset of the attributes that need not be counted (see contains), or null
+	 * @param cuts - receives the best threshold split of every numeric attribute
+	 * @param parallel - whether the columns may be counted by several workers; 
+	 * 		  only meaningful when called from within a ForkJoinPool
+	 * 
+	 * @return the table, laid out as described in computeTableLayout
+	 */
+	public int [] countValues (final TreeNode node, final long [] skip, final double [] cuts, final boolean parallel) {
+
+		int classOffset = tableOffsets[numAttributes - 1];
+
+		int [] counts = new int [classOffset + numClasses];
+
+		int [] rows = node.rows;
+
+		int numdata = node.size ();
+
+		// gather the class of every row once, it is needed for every attribute
+		int [] classes = new int [numdata];
+
+		int [] classColumn = trainingSet.columns[numAttributes - 1];
+
+		for (int i = 0; i < numdata; i++) {
+
+			classes[i] = classColumn[rows[node.start + i]];
+
+			counts[classOffset + classes[i]]++;
+		}
+
+		if (parallel) {
+
+			new CountTask (this, node, skip, classes, counts, cuts, 0, numAttributes - 1).invoke ();
+
+		} else {
+
+			countAttributes (node, skip, classes, counts, cuts, 0, numAttributes - 1);
+		}
+
+		return counts;
+	}
+
+	/**
+	 * Adds the counts of the attributes from .. to - 1 into the contingency table.
+	 * Each attribute owns its own region of the table, so disjoint attribute
+	 * ranges can be counted concurrently.
+	 */
+	public void countAttributes (final TreeNode node, final long [] skip, final int [] classes, final int [] counts, final double [] cuts, final int from, final int to) {
+
+		int [] rows = node.rows;
+
+		int numdata = node.size ();
+
+		// scratch space for the histogram search, shared by the attributes of the range
+		double [] totals = null;
+
+		double [] work = null;
+
+		double [] score = null;
+
+		if (bins != null) {
+
+			totals = classTotals (counts);
+
+			work = new double [2 * numClasses];
+
+			score = new double [1];
+		}
+
+		for (int a = from; a < to; a++) {
+
+			if (contains (skip, a)) {
+
+				continue;
+			}
+
+			if (trainingSet.isNumeric (a)) {
+
+				if (bins != null) {
+
+					findHistogramThreshold (node, a, totals, work, score, cuts);
+
+				} else {
+
+					findThreshold (node, a, counts, cuts);
+				}
+
+				continue;
+			}
+
+			int [] column = trainingSet.columns[a];
+
+			int offset = tableOffsets[a];
+
+			for (int i = 0; i < numdata; i++) {
+
+				counts[offset + column[rows[node.start + i]] * numClasses + classes[i]]++;
+			}
+		}
+	}
+
+	/**
+	 * Finds the threshold of a numeric attribute giving the lowest weighted entropy,
+	 * in one sweep over the node's rows in value order. The rows move to the left
+	 * side one at a time; as n times the entropy of a distribution is n ln n less
+	 * the sum of c ln c over its class counts c, only the terms of the class that
+	 * moved need updating, and every candidate cut is scored in constant time.
+	 * 
+	 * @param node
+	 * @param attribute
+	 * @param counts - the contingency table, holding the class distribution of the node
+	 * @param cuts - receives the weighted entropy of the best cut at cuts[2 * attribute] 
+	 * 		  (infinite if the attribute has a single value) and the threshold after it
+	 */
+	public void findThreshold (final TreeNode node, final int attribute, final int [] counts, final double [] cuts) {
+
+		int [] sorted = sortedRows[attribute];
+
+		double [] column = trainingSet.numericColumns[attribute];
+
+		int [] classColumn = trainingSet.columns[numAttributes - 1];
+
+		int classOffset = tableOffsets[numAttributes - 1];
+
+		int numdata = node.size ();
+
+		int [] left = new int [numClasses];
+
+		double leftSum = 0;
+
+		double rightSum = 0;
+
+		for (int c = 0; c < numClasses; c++) {
+
+			rightSum += xLogX (counts[classOffset + c]);
+		}
+
+		double bestEntropy = Double.POSITIVE_INFINITY;
+
+		double threshold = Double.NaN;
+
+		double next = numdata > 0 ? column[sorted[node.start]] : Double.NaN;
+
+		for (int i = node.start; i < node.end - 1; i++) {
+
+			int row = sorted[i];
+
+			int c = classColumn[row];
+
+			int numleft = left[c];
+
+			int numright = counts[classOffset + c] - numleft;
+
+			leftSum += xLogX (numleft + 1) - xLogX (numleft);
+
+			rightSum += xLogX (numright - 1) - xLogX (numright);
+
+			left[c] = numleft + 1;
+
+			double value = next;
+
+			next = column[sorted[i + 1]];
+
+			int size = i + 1 - node.start;
+
+			// cut only between distinct values - a '?' sorts last, and is never a threshold -
+			// and leave at least minLeafSize rows either side
+			if ((value < next || (Double.isNaN (next) && Double.isNaN (value) == false)) && size >= minLeafSize && numdata - size >= minLeafSize) {
+
+				double averageentropy = xLogX (size) - leftSum + xLogX (numdata - size) - rightSum;
+
+				if (averageentropy < bestEntropy) {
+
+					bestEntropy = averageentropy;
+
+					threshold = value;
+				}
+			}
+		}
+
+		cuts[2 * attribute] = bestEntropy / numdata;
+
+		cuts[2 * attribute + 1] = threshold;
+	}
+
+	/**
+	 * @return the class distribution of a node, from its contingency table, as the totals
+	 * 		   of findHistogramThreshold
+	 */
+	private double [] classTotals (final int [] counts) {
+
+		int classOffset = tableOffsets[numAttributes - 1];
+
+		double [] totals = new double [numClasses];
+
+		for (int c = 0; c < numClasses; c++) {
+
+			totals[c] = counts[classOffset + c];
+		}
+
+		return totals;
+	}
+
+	/**
+	 * Finds the threshold of a numeric attribute giving the lowest weighted entropy
+	 * from the node's histogram, like findThreshold but a bin at a time - see findCut
+	 * 
+	 * @param node
+	 * @param attribute
+	 * @param totals - the class distribution of the node (see classTotals)
+	 * @param work - scratch space for 2 * numClasses doubles
+	 * @param score - scratch space for a double
+	 * @param cuts - receives the weighted entropy of the best cut at cuts[2 * attribute] 
+	 * 		  (infinite if there is none) and the threshold after it
+	 */
+	public void findHistogramThreshold (final TreeNode node, final int attribute, final double [] totals, final double [] work, final double [] score,
+			final double [] cuts) {
+
+		int cut = findCut (classCounts, bins[attribute], node.histogram, histogramOffsets[attribute], totals, node.size (), work, score);
+
+		// the score of a cut is minus its weighted entropy, times the number of rows
+		cuts[2 * attribute] = -score[0] / node.size ();
+
+		cuts[2 * attribute + 1] = cut >= 0 ? bins[attribute].upper[cut] : Double.NaN;
+	}
+
+	/**
+	 * Finds the best cut of a numeric attribute from a histogram, a bin at a time - only 
+	 * the cuts between bins are tried, the last bin, of the '?'s, always stays on the
+	 * right, and either side has to keep at least minLeafSize rows
+	 * 
+	 * @param statistic
+	 * @param attributeBins - the bins of the attribute
+	 * @param histogram
+	 * @param offset - where the cells of the attribute start in the histogram
+	 * @param totals - the sums of all the rows of the node, a cell's worth
+	 * @param numdata - the number of rows of the node
+	 * @param work - scratch space for two cells: the sums left and right of a cut
+	 * @param score - receives the score of the best cut, both its sides added up, at 
+	 * 		  score[0] - negative infinity if there is no cut
+	 * 
+	 * @return the last bin left of the best cut, or -1 if there is no cut
+	 */
+	int findCut (final SplitStatistic statistic, final NumericBins attributeBins, final double [] histogram, final int offset,
+			final double [] totals, final int numdata, final double [] work, final double [] score) {
+
+		int cellSize = statistic.cellSize ();
+
+		// the left sums at work[0], the right at work[cellSize]
+		Arrays.fill (work, 0, cellSize, 0);
+
+		double bestScore = Double.NEGATIVE_INFINITY;
+
+		int bestBin = -1;
+
+		int size = 0;
+
+		for (int b = 0; b < attributeBins.numBins; b++) {
+
+			int cell = offset + b * cellSize;
+
+			int binSize = statistic.count (histogram, cell);
+
+			if (binSize == 0) {
+
+				continue;
+			}
+
+			for (int k = 0; k < cellSize; k++) {
+
+				work[k] += histogram[cell + k];
+			}
+
+			size += binSize;
+
+			if (size == numdata || size < minLeafSize || numdata - size < minLeafSize) {
+
+				continue;
+			}
+
+			for (int k = 0; k < cellSize; k++) {
+
+				work[cellSize + k] = totals[k] - work[k];
+			}
+
+			double cutScore = statistic.score (work, 0) + statistic.score (work, cellSize);
+
+			if (cutScore > bestScore) {
+
+				bestScore = cutScore;
+
+				bestBin = b;
+			}
+		}
+
+		score[0] = bestScore;
+
+		return bestBin;
+	}
+
+	/**
+	 * Scores the split of a symbolic attribute into a child per value, from a histogram
+	 * 
+	 * @param statistic
+	 * @param histogram
+	 * @param offset - where the cells of the attribute start in the histogram
+	 * @param numvalues
+	 * 
+	 * @return the scores of the values having rows, added up - NaN if fewer than two values 
+	 * 		   have rows, or one has fewer than minLeafSize
+	 */
+	double scoreValues (final SplitStatistic statistic, final double [] histogram, final int offset, final int numvalues) {
+
+		int cellSize = statistic.cellSize ();
+
+		double score = 0;
+
+		int numbranches = 0;
+
+		for (int v = 0; v < numvalues; v++) {
+
+			int cell = offset + v * cellSize;
+
+			int count = statistic.count (histogram, cell);
+
+			if (count == 0) {
+
+				continue;
+			}
+
+			if (count < minLeafSize) {
+
+				return Double.NaN;
+			}
+
+			score += statistic.score (histogram, cell);
+
+			numbranches = numbranches + 1;
+		}
+
+		return numbranches > 1 ? score : Double.NaN;
+	}
+
+	/**
+	 * Computes the weighted average entropy of splitting on an attribute
+	 * from the counts gathered by countValues
+	 */
+	public double splitEntropy (final int [] counts, final int attribute, final int numdata) {
+
+		double averageentropy = 0;
+
+		int numvalues = domains[attribute].size ();
+
+		for (int j = 0; j < numvalues; j++) {
+
+			int offset = tableOffsets[attribute] + j * numClasses;
+
+			int size = 0;
+
+			for (int c = 0; c < numClasses; c++) {
+
+				size += counts[offset + c];
+			}
+
+			if (size == 0) {
+			
+				continue;
+			}
+
+			averageentropy += entropy (counts, offset, numClasses, size) * size;
+		}
+
+		return averageentropy / numdata;
+	}
+
+	/**
+	 * @return whether splitting on a symbolic attribute would leave a child with some,
+	 * 		   but fewer than minLeafSize, rows - from the counts gathered by countValues
+	 */
+	private boolean hasSmallBranch (final int [] counts, final int attribute) {
+
+		int numvalues = domains[attribute].size ();
+
+		for (int j = 0; j < numvalues; j++) {
+
+			int offset = tableOffsets[attribute] + j * numClasses;
+
+			int size = 0;
+
+			for (int c = 0; c < numClasses; c++) {
+
+				size += counts[offset + c];
+			}
+
+			if (size > 0 && size < minLeafSize) {
+
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * @return whether the attribute is in the bitset - a null bitset is empty
+	 */
+	public static boolean contains (final long [] bits, final int attribute) {
+
+		return bits != null && (bits[attribute >>> 6] & (1L << attribute)) != 0;
+	}
+
+	/**
+	 * Draws featureSubset of the attributes the node may be split on, at random
+	 * 
+	 * @return a bitset of the attributes not drawn, or used above the node
+	 */
+	private long [] sampleAttributes (final TreeNode node) {
+
+		int [] candidates = new int [numAttributes - 1];
+
+		int numcandidates = 0;
+
+		for (int i = 0; i < numAttributes - 1; i++) {
+
+			if (contains (node.usedAttributes, i) == false) {
+
+				candidates[numcandidates] = i;
+
+				numcandidates = numcandidates + 1;
+			}
+		}
+
+		if (numcandidates <= featureSubset) {
+
+			return node.usedAttributes;
+		}
+
+		// a partial Fisher-Yates shuffle puts the drawn attributes first
+		for (int k = 0; k < featureSubset; k++) {
+
+			int pick = k + random.nextInt (numcandidates - k);
+
+			int swap = candidates[k];
+
+			candidates[k] = candidates[pick];
+
+			candidates[pick] = swap;
+		}
+
+		long [] skip = new long [(numAttributes + 63) >>> 6];
+
+		for (int k = featureSubset; k < numcandidates; k++) {
+
+			skip[candidates[k] >>> 6] |= 1L << candidates[k];
+		}
+
+		for (int w = 0; node.usedAttributes != null && w < skip.length; w++) {
+
+			skip[w] |= node.usedAttributes[w];
+		}
+
+		return skip;
+	}
+
+	/**
+	 * @return the attributes used above the children of a node split on the attribute -
+	 * 		   the node's own, plus the attribute if it is symbolic, as a numeric attribute 
+	 * 		   can be split again further down, at another threshold. The children share it.
+	 */
+	private long [] usedBelow (final TreeNode node, final int attribute) {
+
+		if (trainingSet.isNumeric (attribute)) {
+
+			return node.usedAttributes;
+		}
+
+		long [] bits = node.usedAttributes != null ? node.usedAttributes.clone () : new long [(numAttributes + 63) >>> 6];
+
+		bits[attribute >>> 6] |= 1L << attribute;
+
+		return bits;
+	}
+
+	public void categorize (final TreeNode node, final String tab, final Dataset data, final int row) {
+	
+		int outputattr = numAttributes - 1;
+
+		if (node.children == null) {
+
+			int [] values = node.leafClasses;
+
+			if (debug) {
+
+				if (values.length == 1) {
+					
+					System.out.print (" " + domains[outputattr].symbol (values[0]));
+
+				} else {
+
+					System.out.print (" {");
+
+					for (int i = 0; i < values.length; i++) {
+						
+						System.out.print ("\"" + domains[outputattr].symbol (values[i]) + "\"");
+
+						if (i != values.length - 1) {
+							
+							System.out.print (" , ");
+						}
+					}
+
+					System.out.print (" };");
+				}
+			}
+
+			// a leaf with several classes predicts the majority one, an empty leaf its parent's
+			score (node.label, data, row);
+			
+			return;
+		}
+
+		if (Double.isNaN (node.threshold) == false) {
+
+			double number = data.numericValue (row, node.decompositionAttribute);
+
+			int child = number <= node.threshold ? 0 : 1;
+
+			if (debug) {
+
+				System.out.print ("\n" + tab + attributeNames[node.decompositionAttribute] + (child == 0 ? " <= " : " > ") + node.threshold + ":");
+			}
+
+			categorize (node.children[child], debug ? tab + ":   " : tab, data, row);
+
+			return;
+		}
+
+		// the encoded value is the index of the child - values are appended to the domain
+		// as they are met, so one past the children was not seen during training
+		int value = data.value (row, node.decompositionAttribute);
+
+		if (debug) {
+			
+			System.out.print ("\n" + tab + attributeNames[node.decompositionAttribute] + " = " + domains[node.decompositionAttribute].symbol (value) + ":");
+		}
+
+		if (value >= node.children.length) {
+
+			if (debug) {
+
+				System.out.print (" (unseen in training) " + domains[outputattr].symbol (node.label));
+			}
+
+			score (node.label, data, row);
+
+			return;
+		}
+
+		categorize (node.children[value], debug ? tab + ":   " : tab, data, row);
+	}
+
+	/**
+	 * Displays the rows of the testing set an ensemble got wrong, and the overall results
+	 * 
+	 * @param testingSet
+	 * @param rows - the rows tested on
+	 * @param predicted - the class predicted for rows[i], at predicted[i]
+	 */
+	static void displayResults (final Dataset testingSet, final int [] rows, final int [] predicted) {
+
+		int classAttribute = testingSet.numAttributes - 1;
+
+		int correctCount = 0;
+
+		int inCorrectCount = 0;
+
+		for (int i = 0; i < rows.length; i++) {
+
+			int row = rows[i];
+
+			if (predicted[i] == testingSet.value (row, classAttribute)) {
+
+				correctCount = correctCount + 1;
+
+			} else {
+
+				inCorrectCount = inCorrectCount + 1;
+
+				System.out.print ("\n" + testingSet.label (row));
+
+				System.out.println ("  --- Incorrectly Classified ---");
+			}
+		}
+
+		System.out.println ("\n*******************************************************");
+
+		System.out.println ("\n\t\t   Overall Results");
+
+		System.out.println ("\n Correctly Classified = " + correctCount);
+
+		System.out.println ("\n Incorrectly Classified = " + inCorrectCount);
+
+		System.out.println ("\n Percentage Incorrect = " + (1. * inCorrectCount * 100 / (correctCount + inCorrectCount)));
+	}
+	
+	private void score (final int predicted, final Dataset data, final int row) {
+
+		if (predicted == data.value (row, numAttributes - 1)) {
+			
+			correctCount = correctCount + 1; 
+			
+			if (debug) {
+				
+				System.out.print ("\n\n--- Correctly Classified ---");
+			}
+			
+		} else {
+			
+			inCorrectCount = inCorrectCount + 1;
+				
+			System.out.print ("\n" + data.label (row));
+			
+			System.out.println ("  --- Incorrectly Classified ---");
+		}
+	}
+	
+	/**
+	 * Induces the tree below the root breadth first, over an explicit frontier holding
+	 * the open nodes of one level. The nodes of a level cover disjoint slices of the
+	 * row array, so expanding all of them reads every row once - and on a pool, they
+	 * are expanded concurrently (see InductionTask). A level is expanded in two steps:
+	 * the splits of all its nodes are selected, then split - in between, the leaves 
+	 * left under maxLeaves are handed out in frontier order, so the tree is the same 
+	 * whichever order the workers get to the nodes in.
+	 * 
+	 * @param root
+	 * @param pool - the pool to expand the large levels on, or null to stay on the calling thread
+	 */
+	public void induce (final TreeNode root, final ForkJoinPool pool) {
+
+		TreeNode [] frontier = { root };
+
+		int depth = 0;
+
+		numLeaves = 1;
+
+		while (frontier.length > 0) {
+
+			retainedHistogramCells.set (0);
+
+			long numdata = 0;
+
+			for (int i = 0; i < frontier.length; i++) {
+
+				numdata += frontier[i].size ();
+			}
+
+			boolean parallel = pool != null && numdata >= PARALLEL_THRESHOLD;
+
+			int [] selected = new int [frontier.length];
+
+			if (parallel) {
+
+				pool.invoke (new InductionTask (this, frontier, selected, 0, frontier.length, depth, false));
+
+			} else {
+
+				for (int i = 0; i < frontier.length; i++) {
+
+					selected[i] = selectSplit (frontier[i], depth, false);
+				}
+			}
+
+			for (int i = 0; i < frontier.length; i++) {
+
+				if (selected[i] >= 0 && admitSplit (selected[i]) == false) {
+
+					closeNode (frontier[i], countClasses (frontier[i].rows, frontier[i].start, frontier[i].end));
+
+					selected[i] = -1;
+				}
+			}
+
+			if (parallel) {
+
+				pool.invoke (new InductionTask (this, frontier, selected, 0, frontier.length, depth, true));
+
+			} else {
+
+				for (int i = 0; i < frontier.length; i++) {
+
+					grow (frontier[i], selected[i]);
+				}
+			}
+
+			frontier = nextFrontier (frontier);
+
+			depth = depth + 1;
+		}
+	}
+
+	/**
+	 * @return the children of the frontier's nodes, in order - the open nodes of the next level
+	 */
+	private static TreeNode [] nextFrontier (final TreeNode [] frontier) {
+
+		int size = 0;
+
+		for (int i = 0; i < frontier.length; i++) {
+
+			if (frontier[i].children != null) {
+
+				size += frontier[i].children.length;
+			}
+		}
+
+		TreeNode [] next = new TreeNode [size];
+
+		int index = 0;
+
+		for (int i = 0; i < frontier.length; i++) {
+
+			if (frontier[i].children != null) {
+
+				System.arraycopy (frontier[i].children, 0, next, index, frontier[i].children.length);
+
+				index += frontier[i].children.length;
+			}
+		}
+
+		return next;
+	}
+
+	/**
+	 * Selects the split of a node of the frontier, or turns it into a leaf
+	 * 
+	 * @param node
+	 * @param depth - the number of splits above the node
+	 * @param parallel - whether the contingency table may be filled by several workers
+	 * 
+	 * @return the selected attribute, or -1 if the node is a leaf
+	 */
+	public int selectSplit (final TreeNode node, final int depth, final boolean parallel) {
+
+		if (depth >= maxDepth) {
+
+			closeNode (node, countClasses (node.rows, node.start, node.end));
+
+			return -1;
+		}
+
+		// the histogram was not kept when the level above ran out of room for it
+		if (bins != null && node.histogram == null) {
+
+			node.histogram = histogram (node.rows, node.start, node.end);
+		}
+
+		return selectAttribute (node, parallel);
+	}
+
+	/**
+	 * Splits a node of the frontier on its selected attribute, if it has one
+	 */
+	public void grow (final TreeNode node, final int selectedAttribute) {
+
+		if (selectedAttribute >= 0) {
+
+			split (node, selectedAttribute);
+		}
+
+		node.rows = null;
+	}
+
+	/**
+	 * Counts the leaves a split would add against maxLeaves - a node split into k
+	 * children (empty ones included) turns one leaf into k
+	 * 
+	 * @return whether the split may be made; if so, its leaves are counted
+	 */
+	private boolean admitSplit (final int selectedAttribute) {
+
+		int numvalues = trainingSet.isNumeric (selectedAttribute) ? 2 : domains[selectedAttribute].size ();
+
+		if ((long) numLeaves + numvalues - 1 > maxLeaves) {
+
+			return false;
+		}
+
+		numLeaves = numLeaves + numvalues - 1;
+
+		return true;
+	}
+
+	/**
+	 * Turns a node into a leaf, whatever its entropy - the tree may grow no further
+	 */
+	private void closeNode (final TreeNode node, final int [] classCounts) {
+
+		node.threshold = Double.NaN;
+
+		if (labelNode (node, classCounts)) {
+
+			makeLeaf (node, classCounts);
+		}
+	}
+
+	/**
+	 * Picks the attribute giving the lowest weighted entropy for the node
+	 * 
+	 * @param node
+	 * @param parallel - whether the contingency table may be filled by several workers
+	 * 
+	 * @return the selected attribute, or -1 if the node should remain a leaf
+	 */
+	public int selectAttribute (final TreeNode node, final boolean parallel) {
+
+		int [] classCounts = countClasses (node.rows, node.start, node.end);
+
+		if (labelNode (node, classCounts) == false) {
+
+			return -1;
+		}
+
+		double [] cuts = new double [2 * (numAttributes - 1)];
+
+		long [] skip = featureSubset > 0 ? sampleAttributes (node) : node.usedAttributes;
+
+		int [] counts = countValues (node, skip, cuts, parallel);
+
+		return chooseAttribute (node, classCounts, skip, counts, cuts);
+	}
+
+	/**
+	 * Sets the entropy and the majority label of the node from its class distribution,
+	 * and turns a node having a single class into a leaf
+	 * 
+	 * @return whether the node may still be split
+	 */
+	private boolean labelNode (final TreeNode node, final int [] classCounts) {
+
+		int numdata = node.size ();
+
+		node.entropy = entropy (classCounts, 0, numClasses, numdata);
+
+		// an empty node keeps the label its parent handed down
+		if (numdata > 0) {
+
+			node.label = majority (classCounts);
+		}
+
+		if (node.entropy == 0) {
+		
+			makeLeaf (node, classCounts);
+
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Picks the attribute giving the lowest weighted entropy from the statistics of the 
+	 * node's rows, setting the node's threshold if it is a numeric one; a node that no 
+	 * attribute can split becomes a leaf
+	 * 
+	 * @param node
+	 * @param classCounts - the class distribution of the node
+	 * @param skip - a bitset of the attributes not to consider
+	 * @param counts - the contingency table, as filled by countValues
+	 * @param cuts - the best threshold split of every numeric attribute
+	 * 
+	 * @return the selected attribute, or -1 if the node should remain a leaf
+	 */
+	private int chooseAttribute (final TreeNode node, final int [] classCounts, final long [] skip, final int [] counts, final double [] cuts) {
+
+		double bestEntropy = 0;
+
+		boolean selected = false;
+
+		int selectedAttribute = 0;
+
+		int numdata = node.size ();
+
+		int numinputattributes = numAttributes - 1;
+
+		double threshold = Double.NaN;
+
+		for (int i = 0; i < numinputattributes; i++) {
+
+			if (contains (skip, i)) {
+			
+				continue;
+			}
+
+			double averageentropy;
+
+			if (trainingSet.isNumeric (i)) {
+
+				averageentropy = cuts[2 * i];
+
+				// a cut has to separate the classes somewhat, or the same attribute could be cut forever
+				if (averageentropy > node.entropy - MIN_THRESHOLD_GAIN) {
+
+					continue;
+				}
+
+			} else {
+
+				if (minLeafSize > 1 && hasSmallBranch (counts, i)) {
+
+					continue;
+				}
+
+				averageentropy = splitEntropy (counts, i, numdata);
+			}
+
+			if (minGain > 0 && node.entropy - averageentropy < minGain) {
+
+				continue;
+			}
+
+			if (selected == false) {
+
+				selected = true;
+
+				bestEntropy = averageentropy;
+
+				selectedAttribute = i;
+
+				threshold = cuts[2 * i + 1];
+
+			} else {
+
+				if (averageentropy < bestEntropy) {
+
+					selected = true;
+
+					bestEntropy = averageentropy;
+
+					selectedAttribute = i;
+
+					threshold = cuts[2 * i + 1];
+				}
+
+			}
+		}
+
+		if (selected == false) {
+			
+			makeLeaf (node, classCounts);
+
+			return -1;
+		}
+
+		// NaN unless a numeric attribute was selected
+		node.threshold = trainingSet.isNumeric (selectedAttribute) ? threshold : Double.NaN;
+
+		return selectedAttribute;
+	}
+
+	/**
+	 * Decomposes the node on the attribute, creating one child per value - or two,
+	 * either side of the node's threshold, for a numeric attribute
+	 */
+	public void split (final TreeNode node, final int selectedAttribute) {
+
+		int numvalues;
+
+		int [] column;
+
+		if (trainingSet.isNumeric (selectedAttribute)) {
+
+			numvalues = 2;
+
+			column = branch;
+
+			double [] values = trainingSet.numericColumns[selectedAttribute];
+
+			for (int i = node.start; i < node.end; i++) {
+
+				int row = node.rows[i];
+
+				branch[row] = values[row] <= node.threshold ? 0 : 1;
+			}
+
+		} else {
+
+			numvalues = domains[selectedAttribute].size ();
+
+			column = trainingSet.columns[selectedAttribute];
+		}
+
+		node.decompositionAttribute = selectedAttribute;
+
+		node.children = new TreeNode [numvalues];
+
+		int [] bounds = partition (node.rows, node.start, node.end, column, numvalues);
+
+		int [] buffer = null;
+
+		for (int a = 0; a < numAttributes - 1 && sortedRows != null; a++) {
+
+			if (sortedRows[a] != null) {
+
+				if (buffer == null) {
+
+					buffer = new int [node.size ()];
+				}
+
+				stablePartition (sortedRows[a], node.start, node.end, column, bounds, buffer);
+			}
+		}
+
+		long [] used = usedBelow (node, selectedAttribute);
+
+		for (int j = 0; j < numvalues; j++) {
+
+			node.children[j] = new TreeNode (node.rows, bounds[j], bounds[j + 1]);
+
+			node.children[j].decompositionValue = j;
+
+			node.children[j].usedAttributes = used;
+
+			node.children[j].label = node.label;
+		}
+
+		if (node.histogram != null) {
+
+			splitHistogram (node, bounds);
+		}
+	}
+	
+	/**
+	 * Induces the tree over the DiskDataset breadth first, a level at a time. Every row
+	 * carries the id of the node it has reached in the store's node column; a single
+	 * sequential scan of the columns per level moves the rows of the nodes split since
+	 * the last scan down into their children, and counts the contingency tables and 
+	 * histograms of all the open nodes at once - a level is only scanned again when its
+	 * counts do not fit in MAX_LEVEL_CELLS. The numeric attributes are always split over
+	 * histograms here, as the exact sweep needs the rows of every node in value order.
+	 */
+	private void induceLevels () throws IOException {
+
+		bins = trainingStore.quantize (histogramBins > 0 ? histogramBins : NumericBins.MAX_BINS);
+
+		histogramOffsets = new int [numAttributes];
+
+		histogramSize = layoutHistograms (bins, numClasses, false, histogramOffsets);
+
+		tabulateXLogX (Math.min (trainingStore.numRows, MAX_XLOGX_TABLE));
+
+		int tableSize = tableOffsets[numAttributes - 1] + numClasses;
+
+		int batchSize = Math.max (1, MAX_LEVEL_CELLS / (tableSize + 2 * histogramSize));
+
+		// nodes[id] is the node with that id; the children of a node get consecutive ids, 
+		// from firstChild[id], so each level's nodes follow the level above
+		TreeNode [] nodes = new TreeNode [16];
+
+		int [] firstChild = new int [16];
+
+		nodes[0] = trainingRoot;
+
+		int numNodes = 1;
+
+		int levelStart = 0;
+
+		int depth = 0;
+
+		numLeaves = 1;
+
+		while (levelStart < numNodes) {
+
+			int levelEnd = numNodes;
+
+			int from = levelStart;
+
+			while (from < levelEnd) {
+
+				// the next batch of nodes holding at most batchSize open ones
+				int to = from;
+
+				int numOpen = 0;
+
+				while (to < levelEnd && (numOpen < batchSize || nodes[to].leafClasses != null)) {
+
+					if (nodes[to].leafClasses == null) {
+
+						numOpen = numOpen + 1;
+					}
+
+					to = to + 1;
+				}
+
+				int [][] counts = new int [to - from][];
+
+				double [][] histograms = new double [to - from][];
+
+				for (int id = from; id < to; id++) {
+
+					if (nodes[id].leafClasses == null) {
+
+						counts[id - from] = new int [tableSize];
+
+						histograms[id - from] = new double [histogramSize];
+					}
+				}
+
+				scanLevel (nodes, firstChild, from, to, counts, histograms);
+
+				for (int id = from; id < to; id++) {
+
+					if (counts[id - from] == null) {
+
+						continue;
+					}
+
+					TreeNode node = nodes[id];
+
+					node.histogram = histograms[id - from];
+
+					int selectedAttribute = selectLevelAttribute (node, counts[id - from], depth);
+
+					// the nodes are decided in id order, which is the frontier order of the in-memory induction
+					if (selectedAttribute >= 0 && admitSplit (selectedAttribute) == false) {
+
+						int classOffset = tableOffsets[numAttributes - 1];
+
+						closeNode (node, Arrays.copyOfRange (counts[id - from], classOffset, classOffset + numClasses));
+
+						selectedAttribute = -1;
+					}
+
+					if (selectedAttribute >= 0) {
+
+						branchOut (node, selectedAttribute, counts[id - from], depth + 1);
+
+						if (numNodes + node.children.length > nodes.length) {
+
+							int capacity = Math.max (nodes.length * 2, numNodes + node.children.length);
+
+							nodes = Arrays.copyOf (nodes, capacity);
+
+							firstChild = Arrays.copyOf (firstChild, capacity);
+						}
+
+						firstChild[id] = numNodes;
+
+						for (int j = 0; j < node.children.length; j++) {
+
+							nodes[numNodes] = node.children[j];
+
+							numNodes = numNodes + 1;
+						}
+					}
+
+					node.histogram = null;
+
+					counts[id - from] = null;
+
+					histograms[id - from] = null;
+				}
+
+				from = to;
+			}
+
+			levelStart = levelEnd;
+
+			depth = depth + 1;
+		}
+	}
+
+	/**
+	 * Scans the training rows once: moves each row down to the child of its node, if that
+	 * node has been split since, and counts the row into the contingency table and the
+	 * histogram of its node, if that node is one of nodes[from] .. nodes[to - 1]
+	 * 
+	 * @param counts - the contingency tables, null for a node that is not counted
+	 * @param histograms - the histograms of the numeric attributes
+	 */
+	private void scanLevel (final TreeNode [] nodes, final int [] firstChild, final int from, final int to, final int [][] counts, final double [][] histograms) throws IOException {
+
+		int numinputattributes = numAttributes - 1;
+
+		int classOffset = tableOffsets[numinputattributes];
+
+		IntBuffer [] ints = new IntBuffer [numAttributes];
+
+		DoubleBuffer [] doubles = new DoubleBuffer [numAttributes];
+
+		for (int first = 0; first < trainingStore.numRows; first += DiskDataset.WINDOW_ROWS) {
+
+			int count = Math.min (DiskDataset.WINDOW_ROWS, trainingStore.numRows - first);
+
+			for (int a = 0; a < numAttributes; a++) {
+
+				if (trainingStore.isNumeric (a)) {
+
+					doubles[a] = trainingStore.doubleColumn (a, first, count);
+
+				} else {
+
+					ints[a] = trainingStore.intColumn (a, first, count);
+				}
+			}
+
+			IntBuffer nodeIds = trainingStore.nodeColumn (first, count);
+
+			IntBuffer classes = ints[numinputattributes];
+
+			for (int i = 0; i < count; i++) {
+
+				int id = nodeIds.get (i);
+
+				TreeNode node = nodes[id];
+
+				// the node has been split since the row was last moved - move it down to its child
+				if (node.children != null) {
+
+					while (node.children != null) {
+
+						int a = node.decompositionAttribute;
+
+						int child = bins[a] != null ? (doubles[a].get (i) <= node.threshold ? 0 : 1) : ints[a].get (i);
+
+						id = firstChild[id] + child;
+
+						node = node.children[child];
+					}
+
+					nodeIds.put (i, id);
+				}
+
+				if (id < from || id >= to || counts[id - from] == null) {
+
+					continue;
+				}
+
+				int [] table = counts[id - from];
+
+				double [] histogram = histograms[id - from];
+
+				int c = classes.get (i);
+
+				table[classOffset + c]++;
+
+				for (int a = 0; a < numinputattributes; a++) {
+
+					if (bins[a] != null) {
+
+						histogram[histogramOffsets[a] + bins[a].code (doubles[a].get (i)) * numClasses + c] += 1;
+
+					} else {
+
+						table[tableOffsets[a] + ints[a].get (i) * numClasses + c]++;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Picks the attribute to split a node on from the counts of a level scan - the node's
+	 * histogram has to be set
+	 * 
+	 * @param node
+	 * @param counts
+	 * @param depth - the number of splits above the node
+	 * 
+	 * @return the selected attribute, or -1 if the node should remain a leaf
+	 */
+	private int selectLevelAttribute (final TreeNode node, final int [] counts, final int depth) {
+
+		int classOffset = tableOffsets[numAttributes - 1];
+
+		int [] classCounts = new int [numClasses];
+
+		System.arraycopy (counts, classOffset, classCounts, 0, numClasses);
+
+		if (depth >= maxDepth) {
+
+			closeNode (node, classCounts);
+
+			return -1;
+		}
+
+		if (labelNode (node, classCounts) == false) {
+
+			return -1;
+		}
+
+		double [] cuts = new double [2 * (numAttributes - 1)];
+
+		double [] totals = classTotals (counts);
+
+		double [] work = new double [2 * numClasses];
+
+		double [] score = new double [1];
+
+		for (int a = 0; a < numAttributes - 1; a++) {
+
+			if (bins[a] != null) {
+
+				findHistogramThreshold (node, a, totals, work, score, cuts);
+			}
+		}
+
+		return chooseAttribute (node, classCounts, node.usedAttributes, counts, cuts);
+	}
+
+	/**
+	 * Splits a node of a level-wise induction: creates its children, without rows - 
+	 * their class distributions, and so their sizes, follow from the counts of the node,
+	 * and a child having a single class (or none), or as deep as the tree may grow, 
+	 * becomes a leaf straight away
+	 * 
+	 * @param childDepth - the number of splits above the children
+	 */
+	private void branchOut (final TreeNode node, final int selectedAttribute, final int [] counts, final int childDepth) {
+
+		boolean numeric = bins[selectedAttribute] != null;
+
+		int numvalues = numeric ? 2 : domains[selectedAttribute].size ();
+
+		int [][] childCounts = new int [numvalues][numClasses];
+
+		if (numeric) {
+
+			NumericBins attributeBins = bins[selectedAttribute];
+
+			int offset = histogramOffsets[selectedAttribute];
+
+			// the threshold is the upper bound of a bin; the '?'s go right
+			for (int b = 0; b <= attributeBins.numBins; b++) {
+
+				int side = b < attributeBins.numBins && attributeBins.upper[b] <= node.threshold ? 0 : 1;
+
+				for (int c = 0; c < numClasses; c++) {
+
+					childCounts[side][c] += (int) node.histogram[offset + b * numClasses + c];
+				}
+			}
+
+		} else {
+
+			for (int j = 0; j < numvalues; j++) {
+
+				System.arraycopy (counts, tableOffsets[selectedAttribute] + j * numClasses, childCounts[j], 0, numClasses);
+			}
+		}
+
+		node.decompositionAttribute = selectedAttribute;
+
+		node.children = new TreeNode [numvalues];
+
+		long [] used = usedBelow (node, selectedAttribute);
+
+		for (int j = 0; j < numvalues; j++) {
+
+			int size = 0;
+
+			for (int c = 0; c < numClasses; c++) {
+
+				size += childCounts[j][c];
+			}
+
+			TreeNode child = new TreeNode (null, 0, size);
+
+			child.decompositionValue = j;
+
+			child.usedAttributes = used;
+
+			child.label = node.label;
+
+			node.children[j] = child;
+
+			if (childDepth >= maxDepth || entropy (childCounts[j], 0, numClasses, size) == 0) {
+
+				closeNode (child, childCounts[j]);
+			}
+		}
+	}
+
+	/**
+	 * @return the model of the last induced tree, for prediction; null until createDecisionTree has run
+	 */
+	public TreeModel getModel () {
+		
+		return this.model;
+	}
+	
+	public Dataset getTrainingSet () {
+		
+		return this.trainingSet;
+	}
+	
+	public SymbolTable [] getDomains () {
+		
+		return this.domains;
+	}
+	
+	public String [] getAttributeNames () {
+		
+		return this.attributeNames;
+	}
+	
+	public int getNumAttributes () {
+		
+		return this.numAttributes;
+	}
+	
+	/**
+	 * @return the rows of the training set to induce on - not to be modified
+	 */
+	public int [] getTrainingRows () {
+		
+		return this.trainingRows != null ? this.trainingRows : this.trainingSet.allRows ();
+	}
+	
+	/**
+	 * @return the rows of the testing set to test on - not to be modified
+	 */
+	public int [] getTestingRows () {
+		
+		return this.testingRows != null ? this.testingRows : this.testingSet.allRows ();
+	}
+	
+	/**
+	 * Sets how a single data file is split into training and testing rows
+	 * 
+	 * @param splitMode - DataSplit.RANDOM, STRATIFIED or HASHED
+	 * @param splitSeed
+	 */
+	public void setSplit (final int splitMode, final long splitSeed) {
+		
+		if (splitMode < DataSplit.RANDOM || splitMode > DataSplit.HASHED) {
+			
+			throw new IllegalArgumentException ("Unknown split mode " + splitMode);
+		}
+		
+		this.splitMode = splitMode;
+		
+		this.splitSeed = splitSeed;
+	}
+	
+	/**
+	 * Sets whether load splits a single data file into training and testing rows - if 
+	 * not, the training rows are all the rows of the file, and so are the testing rows
+	 */
+	public void setHoldout (final boolean holdout) {
+		
+		this.holdout = holdout;
+	}
+	
+	public boolean getHoldout () {
+		
+		return this.holdout;
+	}
+	
+	public int getSplitMode () {
+		
+		return this.splitMode;
+	}
+	
+	public long getSplitSeed () {
+		
+		return this.splitSeed;
+	}
+	
+	public Dataset getTestingSet () {
+		
+		return this.testingSet;
+	}
+	
+	public void setParallelism (final int parallelism) {
+		
+		this.parallelism = parallelism;
+	}
+	
+	public int getParallelism () {
+		
+		return this.parallelism;
+	}
+	
+	/**
+	 * @param histogramBins - the number of bins (2 .. NumericBins.MAX_BINS) to quantize the 
+	 * 		  numeric attributes into for histogram split finding, or 0 for exact splits
+	 */
+	public void setHistogramBins (final int histogramBins) {
+		
+		if (histogramBins != 0 && (histogramBins < 2 || histogramBins > NumericBins.MAX_BINS)) {
+			
+			throw new IllegalArgumentException ("The number of bins must be 0, or 2 .. " + NumericBins.MAX_BINS);
+		}
+		
+		this.histogramBins = histogramBins;
+	}
+	
+	public int getHistogramBins () {
+		
+		return this.histogramBins;
+	}
+	
+	/**
+	 * @param outOfCoreDirectory - the directory to keep the training rows in while the tree 
+	 * 		  is induced level by level (see DiskDataset), or null to hold them in memory
+	 */
+	public void setOutOfCoreDirectory (final String outOfCoreDirectory) {
+		
+		this.outOfCoreDirectory = outOfCoreDirectory;
+	}
+	
+	public String getOutOfCoreDirectory () {
+		
+		return this.outOfCoreDirectory;
+	}
+	
+	public void setMaxDepth (final int maxDepth) {
+		
+		this.maxDepth = maxDepth;
+	}
+	
+	public int getMaxDepth () {
+		
+		return this.maxDepth;
+	}
+	
+	/**
+	 * @param minLeafSize - the fewest rows a split may leave a child with (empty children aside), at least 1
+	 */
+	public void setMinLeafSize (final int minLeafSize) {
+		
+		if (minLeafSize < 1) {
+			
+			throw new IllegalArgumentException ("The minimum leaf size must be at least 1");
+		}
+		
+		this.minLeafSize = minLeafSize;
+	}
+	
+	public int getMinLeafSize () {
+		
+		return this.minLeafSize;
+	}
+	
+	/**
+	 * @param minGain - the least information gain (in nats) a split has to bring, 0 for any
+	 */
+	public void setMinGain (final double minGain) {
+		
+		if (minGain < 0 || Double.isNaN (minGain)) {
+			
+			throw new IllegalArgumentException ("The minimum gain cannot be negative");
+		}
+		
+		this.minGain = minGain;
+	}
+	
+	public double getMinGain () {
+		
+		return this.minGain;
+	}
+	
+	/**
+	 * @param maxLeaves - the most leaves the tree may have, at least 1
+	 */
+	public void setMaxLeaves (final int maxLeaves) {
+		
+		if (maxLeaves < 1) {
+			
+			throw new IllegalArgumentException ("The maximum number of leaves must be at least 1");
+		}
+		
+		this.maxLeaves = maxLeaves;
+	}
+	
+	public int getMaxLeaves () {
+		
+		return this.maxLeaves;
+	}
+	
+	public void setDataCache (final boolean dataCache) {
+		
+		this.dataCache = dataCache;
+	}
+	
+	public boolean getDataCache () {
+		
+		return this.dataCache;
+	}
+
 	public void setNumAttributes (int numAttributes) {
 	
 		this.numAttributes = numAttributes;
@@ -413,19 +2661,24 @@ public class DecisionTree {
 		this.testingDataFile = name;
 	}
 
-	public void setDomains (final Vector [] domains) {
+	public void setDomains (final SymbolTable [] domains) {
 	
 		this.domains = domains;
 	}
 	
-	public void setTestingRoot (final TreeNode testingRoot) {
+	public void setTestingSet (final Dataset testingSet) {
+		
+		this.testingSet = testingSet;
+	}
+	
+	public void setTrainingSet (final Dataset trainingSet) {
 		
-		this.testingRoot = testingRoot;
+		this.trainingSet = trainingSet;
 	}
 	
-	public void setTrainingRoot (final TreeNode trainingRoot) {
+	public void setTrainingStore (final DiskDataset trainingStore) {
 		
-		this.trainingRoot = trainingRoot;
+		this.trainingStore = trainingStore;
 	}
 	
 	public String getNamesFile () {
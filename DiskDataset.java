@@ -0,0 +1,230 @@
+/**
+ * <code>DiskDataset</code> is the out-of-core counterpart of Dataset: the encoded
+ * training rows are streamed to one file per column as they are parsed, and read
+ * back through memory-mapped windows, so the size of the data set is bounded by
+ * the disk rather than by the heap. Symbolic attributes (the class included) are
+ * stored as int codes, numeric ones as doubles (NaN for a '?').
+ *
+ * Next to the columns the store keeps a read-write scratch column holding, for
+ * every row, the id of the tree node the row has reached - see
+ * DecisionTree.induceLevels, which scans all these columns once per tree level.
+ *
+ * The bin bounds of the numeric attributes are sampled while the rows are
+ * written, so histogram split finding needs no extra pass over the data.
+ *
+ * @author pandit
+ *
+ * @version 1.0
+ *
+ * Revision Log
+ *
+ * Date       Version        Description
+ ******************************************************************************
+ * 18th Oct    1.0     	First cut at DiskDataset
+ ******************************************************************************
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+
+class DiskDataset implements RowSink {
+
+	/*
+	 * The columns are mapped this many rows at a time, as a single mapping cannot exceed 2GB
+	 */
+	public static final int WINDOW_ROWS = 1 << 26;
+
+	private static final String NODES_FILE = "nodes";
+
+	public int numAttributes;
+
+	public int numRows;
+
+	private boolean [] numeric;
+
+	/*
+	 * The directory of this store - created inside the directory the store was given
+	 */
+	private File directory;
+
+	/*
+	 * One stream per column while rows are being added; null once finished
+	 */
+	private DataOutputStream [] out;
+
+	/*
+	 * The bin bounds being gathered for each numeric attribute
+	 */
+	private NumericBins [] bins;
+
+
+	/**
+	 * @param parent - the directory to keep the column files in
+	 * @param numAttributes
+	 * @param numeric - flags the numeric attributes, or null if there are none
+	 */
+	public DiskDataset (final String parent, final int numAttributes, final boolean [] numeric) throws IOException {
+
+		this.numAttributes = numAttributes;
+
+		this.numeric = numeric != null ? numeric : new boolean [numAttributes];
+
+		File parentDirectory = new File (parent);
+
+		parentDirectory.mkdirs ();
+
+		directory = Files.createTempDirectory (parentDirectory.toPath (), "c5data").toFile ();
+
+		out = new DataOutputStream [numAttributes];
+
+		bins = new NumericBins [numAttributes];
+
+		for (int i = 0; i < numAttributes; i++) {
+
+			out[i] = new DataOutputStream (new BufferedOutputStream (new FileOutputStream (columnFile (i)), 1 << 16));
+
+			if (this.numeric[i]) {
+
+				bins[i] = new NumericBins (NumericBins.SAMPLE_SIZE);
+			}
+		}
+	}
+
+	private File columnFile (final int attribute) {
+
+		return new File (directory, "column" + attribute);
+	}
+
+	public int addRow (final int [] values, final double [] numericValues, final int id, final String label) throws IOException {
+
+		for (int i = 0; i < numAttributes; i++) {
+
+			if (numeric[i]) {
+
+				out[i].writeDouble (numericValues[i]);
+
+				bins[i].add (numericValues[i]);
+
+			} else {
+
+				out[i].writeInt (values[i]);
+			}
+		}
+
+		numRows = numRows + 1;
+
+		return numRows - 1;
+	}
+
+	/**
+	 * Closes the column files, and creates the node column with every row at node 0 (the root)
+	 */
+	public void finish () throws IOException {
+
+		for (int i = 0; i < numAttributes; i++) {
+
+			out[i].close ();
+		}
+
+		out = null;
+
+		RandomAccessFile nodes = new RandomAccessFile (new File (directory, NODES_FILE), "rw");
+
+		// a file grown by setLength reads as zeros
+		nodes.setLength (4L * numRows);
+
+		nodes.close ();
+	}
+
+	public boolean isNumeric (final int attribute) {
+
+		return numeric[attribute];
+	}
+
+	/**
+	 * @param maxBins - at most NumericBins.MAX_BINS
+	 *
+	 * @return the bins of every numeric attribute (null for the others), without codes -
+	 * 		   can only be called once
+	 */
+	public NumericBins [] quantize (final int maxBins) {
+
+		NumericBins [] quantized = bins;
+
+		for (int i = 0; i < numAttributes; i++) {
+
+			if (quantized[i] != null) {
+
+				quantized[i].computeBounds (maxBins);
+			}
+		}
+
+		bins = null;
+
+		return quantized;
+	}
+
+	/**
+	 * Maps count rows of a symbolic column, starting at row first
+	 */
+	public IntBuffer intColumn (final int attribute, final int first, final int count) throws IOException {
+
+		return map (columnFile (attribute), FileChannel.MapMode.READ_ONLY, 4L * first, 4L * count).asIntBuffer ();
+	}
+
+	/**
+	 * Maps count rows of a numeric column, starting at row first
+	 */
+	public DoubleBuffer doubleColumn (final int attribute, final int first, final int count) throws IOException {
+
+		return map (columnFile (attribute), FileChannel.MapMode.READ_ONLY, 8L * first, 8L * count).asDoubleBuffer ();
+	}
+
+	/**
+	 * Maps count rows of the node column, for reading and writing, starting at row first
+	 */
+	public IntBuffer nodeColumn (final int first, final int count) throws IOException {
+
+		return map (new File (directory, NODES_FILE), FileChannel.MapMode.READ_WRITE, 4L * first, 4L * count).asIntBuffer ();
+	}
+
+	private static MappedByteBuffer map (final File file, final FileChannel.MapMode mode, final long offset, final long size) throws IOException {
+
+		RandomAccessFile raf = new RandomAccessFile (file, mode == FileChannel.MapMode.READ_ONLY ? "r" : "rw");
+
+		FileChannel channel = raf.getChannel ();
+
+		// the mapping stays valid once the file is closed
+		MappedByteBuffer buffer = channel.map (mode, offset, size);
+
+		channel.close ();
+
+		raf.close ();
+
+		return buffer;
+	}
+
+	/**
+	 * Removes the files of the store - it cannot be read afterwards
+	 */
+	public void delete () {
+
+		File [] files = directory.listFiles ();
+
+		for (int i = 0; files != null && i < files.length; i++) {
+
+			files[i].delete ();
+		}
+
+		directory.delete ();
+	}
+}
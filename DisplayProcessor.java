@@ -13,10 +13,19 @@
  * 17th Nov    1.0     	First cut at DisplayProcessor
  * 
  * 18th Nov	   1.1		Modified the code for better formatting
+ * 
+ * 18th Oct    1.2      Leaf values are read from the columnar Dataset
+ * 
+ *             1.3      Leaf values are reported in domain order
+ * 
+ *             1.4      Leaf values are taken from the distribution kept on the leaf
+ * 
+ *             1.5      Domains are SymbolTables
+ * 
+ *             1.6      Threshold splits of numeric attributes
  ******************************************************************************
  */
 
-import java.util.Vector;
 
 public class DisplayProcessor {
 
@@ -28,17 +37,17 @@ public class DisplayProcessor {
 		this.MAX_DEPTH = maxDepth;
 	}
 	
-	public void displayTree (final TreeNode node, final String tab, final int numAttributes, final String [] attributeNames, final Vector [] domains, final int depth) {
+	public void displayTree (final TreeNode node, final String tab, final int numAttributes, final String [] attributeNames, final SymbolTable [] domains, final int depth) {
 
 		int outputattr = numAttributes - 1;
 
 		if (node.children == null) {
 
-			int [] values = getAllValues (node.data, outputattr, domains);
+			int [] values = node.leafClasses;
 
 			if (values.length == 1) {
 
-				System.out.print (" " + domains[outputattr].elementAt (values[0]));
+				System.out.print (" " + domains[outputattr].symbol (values[0]));
 
 				return;
 			}
@@ -47,7 +56,7 @@ public class DisplayProcessor {
 
 			for (int i = 0; i < values.length; i++) {
 
-				System.out.print ("\"" + domains[outputattr].elementAt (values[i]) + "\"");
+				System.out.print ("\"" + domains[outputattr].symbol (values[i]) + "\"");
 
 				if (i != values.length - 1) {
 					
@@ -64,7 +73,14 @@ public class DisplayProcessor {
 
 		for (int i = 0; i < numvalues; i++) {
 
-			System.out.print ("\n" + tab + attributeNames[node.decompositionAttribute] + " = " + domains[node.decompositionAttribute].elementAt (i) + ":");
+			if (Double.isNaN (node.threshold)) {
+
+				System.out.print ("\n" + tab + attributeNames[node.decompositionAttribute] + " = " + domains[node.decompositionAttribute].symbol (i) + ":");
+
+			} else {
+
+				System.out.print ("\n" + tab + attributeNames[node.decompositionAttribute] + (i == 0 ? " <= " : " > ") + node.threshold + ":");
+			}
 				
 			if (depth <= this.MAX_DEPTH) {
 				
@@ -85,38 +101,4 @@ public class DisplayProcessor {
 			}
 		}
 	}
-	
-	public static int [] getAllValues (final Vector data, final int attribute, final Vector [] domains) {
-
-		Vector values = new Vector ();
-
-		int num = data.size ();
-
-		for (int i = 0; i < num; i++) {
-
-			DataPoint point = (DataPoint) data.elementAt (i);
-
-			String symbol =	(String) domains[attribute].elementAt (point.attributes[attribute]);
-
-			int index = values.indexOf (symbol);
-
-			if (index < 0) {
-
-				values.addElement (symbol);
-			}
-		}
-
-		int [] array = new int [values.size ()];
-
-		for (int i = 0; i < array.length; i++) {
-
-			String symbol = (String) values.elementAt (i);
-
-			array[i] = domains[attribute].indexOf (symbol);
-		}
-
-		values = null;
-
-		return array;
-	}
 }
\ No newline at end of file
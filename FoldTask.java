@@ -0,0 +1,48 @@
+/**
+ * <code>FoldTask</code> cross-validates one grid point on one fold of a
+ * CrossValidation, so the folds and the grid points can be run on a thread pool.
+ *
+ * @author pandit
+ *
+ * @version 1.0
+ *
+ * Revision Log
+ *
+ * Date       Version        Description
+ ******************************************************************************
+ * 18th Oct    1.0     	First cut at FoldTask
+ ******************************************************************************
+ */
+
+import java.util.concurrent.Callable;
+
+class FoldTask implements Callable<Object> {
+
+	private final CrossValidation validation;
+
+	private final int point;
+
+	private final int fold;
+
+
+	/**
+	 * @param validation
+	 * @param point - the grid point to validate
+	 * @param fold - the fold to test on
+	 */
+	public FoldTask (final CrossValidation validation, final int point, final int fold) {
+
+		this.validation = validation;
+
+		this.point = point;
+
+		this.fold = fold;
+	}
+
+	public Object call () throws Exception {
+
+		validation.validate (point, fold);
+
+		return null;
+	}
+}
@@ -0,0 +1,43 @@
+/**
+ * <code>ForestTask</code> induces one tree of a RandomForest, so the trees can be
+ * induced on a thread pool.
+ *
+ * @author pandit
+ *
+ * @version 1.0
+ *
+ * Revision Log
+ *
+ * Date       Version        Description
+ ******************************************************************************
+ * 18th Oct    1.0     	First cut at ForestTask
+ ******************************************************************************
+ */
+
+import java.util.concurrent.Callable;
+
+class ForestTask implements Callable<Object> {
+
+	private final RandomForest forest;
+
+	private final int tree;
+
+
+	/**
+	 * @param forest
+	 * @param tree - the number of the tree to induce
+	 */
+	public ForestTask (final RandomForest forest, final int tree) {
+
+		this.forest = forest;
+
+		this.tree = tree;
+	}
+
+	public Object call () throws Exception {
+
+		forest.trainTree (tree);
+
+		return null;
+	}
+}
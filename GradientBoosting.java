@@ -0,0 +1,692 @@
+/**
+ * <code>GradientBoosting</code> trains a gradient-boosted ensemble of regression
+ * trees under the multiclass softmax loss. Every round grows one tree per class on
+ * the gradient and hessian of the loss at the current scores, and adds its leaf
+ * weights, scaled down by the shrinkage, to the scores of that class.
+ *
+ * The trees are grown with the histogram split search of DecisionTree, over a
+ * GradientStatistic instead of the per-class row counts. The numeric attributes are
+ * quantized into NumericBins once, and every node holds a histogram of the gradient
+ * sum, hessian sum and row count of each bin of each attribute. A numeric attribute
+ * is cut between two bins, with the '?'s going to the right (see DecisionTree.findCut).
+ * A symbolic attribute splits a node into one child per value, and is used only once 
+ * on a path. The histogram of the largest child of a split is its parent's minus its 
+ * siblings' (see DecisionTree.childHistograms).
+ *
+ * Each round grows its trees over a random sample of the training rows, and each
+ * tree chooses its splits from a random sample of the attributes. Both are drawn
+ * from one generator seeded with the seed of the ensemble, so training repeats.
+ * Only the training rows of the DecisionTree are trained on (see DataSplit).
+ *
+ * @author pandit
+ *
+ * @version 1.0
+ *
+ * Revision Log
+ *
+ * Date       Version        Description
+ ******************************************************************************
+ * 18th Oct    1.0     	First cut at GradientBoosting
+ *
+ *             1.1     	Trains on, and tests, the rows of the DecisionTree's DataSplit
+ *
+ *             1.2     	The split search is DecisionTree's, over a GradientStatistic;
+ *                      testing reuses one buffer of scores
+ *
+ *             1.3     	The cut search reuses one scratch buffer for the whole ensemble
+ ******************************************************************************
+ */
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class GradientBoosting {
+
+	/*
+	 * The loaded data set and the stopping criteria of the trees - maxDepth and minLeafSize
+	 */
+	private DecisionTree data;
+
+	private Dataset trainingSet;
+
+	private int numAttributes;
+
+	private int numClasses;
+
+	private int numRounds;
+
+	/*
+	 * The factor every leaf weight is scaled by
+	 */
+	private double shrinkage;
+
+	/*
+	 * The fractions of the training rows each round is grown on, and of the input
+	 * attributes each tree chooses its splits from
+	 */
+	private double rowSample;
+
+	private double columnSample;
+
+	private long seed;
+
+	/*
+	 * The L2 penalty on the leaf weights
+	 */
+	private double lambda = 1;
+
+	private int maxDepth;
+
+	private int minLeafSize;
+
+	/*
+	 * The least decrease in loss a split has to bring
+	 */
+	private static final double MIN_SPLIT_GAIN = 1e-9;
+
+	/*
+	 * The least hessian of a row - keeps the leaf weights finite once a row is fitted
+	 */
+	private static final double MIN_HESSIAN = 1e-6;
+
+	/*
+	 * The bins of every numeric attribute - null for the symbolic ones, whose values are their bins
+	 */
+	private NumericBins [] bins;
+
+	/*
+	 * The number of bins of every attribute, the '?' bin of a numeric one included, and
+	 * where its bins start in a histogram
+	 */
+	private int [] numValues;
+
+	private int [] histogramOffsets;
+
+	private int histogramSize;
+
+	/*
+	 * The gradient and the hessian of every training row, for the tree being grown
+	 */
+	private double [] gradients;
+
+	private double [] hessians;
+
+	private SplitStatistic statistic;
+
+	/*
+	 * Scratch space for DecisionTree.findCut - the gradient sums either side of a cut, and
+	 * the score of the best cut - used by one node at a time
+	 */
+	private double [] cutWork;
+
+	private double [] cutScore;
+
+	/*
+	 * The child every row of a node being split on a threshold goes to, indexed by row
+	 */
+	private int [] branch;
+
+	/*
+	 * The ensemble grown so far, in the layout of BoostedModel
+	 */
+	private int [] nodes;
+
+	private double [] thresholds;
+
+	private double [] weights;
+
+	private int numNodes;
+
+	private BoostedModel model;
+
+
+	/**
+	 * @param data - a tree whose data set is loaded (see DecisionTree.load), in memory;
+	 * 		  its maxDepth and minLeafSize limit the trees
+	 * @param numRounds - the number of trees grown for each class
+	 * @param shrinkage - in (0, 1]
+	 * @param rowSample - the fraction of the training rows each round is grown on, in (0, 1]
+	 * @param columnSample - the fraction of the attributes each tree chooses from, in (0, 1]
+	 * @param seed
+	 */
+	public GradientBoosting (final DecisionTree data, final int numRounds, final double shrinkage, final double rowSample, final double columnSample, final long seed) {
+
+		if (data.getOutOfCoreDirectory () != null) {
+
+			throw new IllegalStateException ("Boosted trees are trained in memory only");
+		}
+
+		if (numRounds < 1) {
+
+			throw new IllegalArgumentException ("numRounds must be at least 1, was " + numRounds);
+		}
+
+		if ((shrinkage > 0 && shrinkage <= 1) == false) {
+
+			throw new IllegalArgumentException ("shrinkage must be in (0, 1], was " + shrinkage);
+		}
+
+		if ((rowSample > 0 && rowSample <= 1) == false || (columnSample > 0 && columnSample <= 1) == false) {
+
+			throw new IllegalArgumentException ("the sample fractions must be in (0, 1], were " + rowSample + " and " + columnSample);
+		}
+
+		this.data = data;
+
+		this.trainingSet = data.getTrainingSet ();
+
+		this.numAttributes = data.getNumAttributes ();
+
+		this.numClasses = data.getDomains ()[numAttributes - 1].size ();
+
+		this.numRounds = numRounds;
+
+		this.shrinkage = shrinkage;
+
+		this.rowSample = rowSample;
+
+		this.columnSample = columnSample;
+
+		this.seed = seed;
+
+		this.maxDepth = data.getMaxDepth ();
+
+		this.minLeafSize = data.getMinLeafSize ();
+	}
+
+	/**
+	 * Grows the trees of the ensemble
+	 *
+	 * @return the model of the ensemble
+	 */
+	public BoostedModel train () {
+
+		quantize ();
+
+		int numRows = trainingSet.numRows;
+
+		// the rows trained on - reordered by the row sampling
+		int [] trainingRows = data.getTrainingRows ().clone ();
+
+		int numTraining = trainingRows.length;
+
+		int [] classColumn = trainingSet.columns[numAttributes - 1];
+
+		// every class starts from the log of its (smoothed) prior
+		double [] baseScores = new double [numClasses];
+
+		int [] classCounts = new int [numClasses];
+
+		for (int i = 0; i < numTraining; i++) {
+
+			classCounts[classColumn[trainingRows[i]]]++;
+		}
+
+		for (int c = 0; c < numClasses; c++) {
+
+			baseScores[c] = Math.log ((classCounts[c] + 1.0) / (numTraining + numClasses));
+		}
+
+		// the scores and the probabilities of the training rows, indexed by row
+		double [] scores = new double [numRows * numClasses];
+
+		for (int i = 0; i < numTraining; i++) {
+
+			System.arraycopy (baseScores, 0, scores, trainingRows[i] * numClasses, numClasses);
+		}
+
+		double [] probabilities = new double [numClasses];
+
+		double [] rowProbabilities = new double [numRows * numClasses];
+
+		gradients = new double [numRows];
+
+		hessians = new double [numRows];
+
+		statistic = new GradientStatistic (gradients, hessians, lambda);
+
+		cutWork = new double [2 * GradientStatistic.CELL_SIZE];
+
+		cutScore = new double [1];
+
+		branch = new int [numRows];
+
+		nodes = new int [1024 * BoostedModel.NODE_SIZE];
+
+		thresholds = new double [1024];
+
+		weights = new double [1024];
+
+		numNodes = 0;
+
+		int [] roots = new int [numRounds * numClasses];
+
+		Random random = new Random (seed);
+
+		int sampleSize = Math.max (1, (int) Math.round (rowSample * numTraining));
+
+		int [] rows = new int [sampleSize];
+
+		for (int round = 0; round < numRounds; round++) {
+
+			// the gradients of a round are all taken at the scores it started from
+			for (int i = 0; i < numTraining; i++) {
+
+				int row = trainingRows[i];
+
+				System.arraycopy (scores, row * numClasses, probabilities, 0, numClasses);
+
+				BoostedModel.softmax (probabilities);
+
+				System.arraycopy (probabilities, 0, rowProbabilities, row * numClasses, numClasses);
+			}
+
+			if (sampleSize < numTraining) {
+
+				// a partial Fisher-Yates shuffle puts the sampled rows first
+				for (int i = 0; i < sampleSize; i++) {
+
+					int pick = i + random.nextInt (numTraining - i);
+
+					int swap = trainingRows[i];
+
+					trainingRows[i] = trainingRows[pick];
+
+					trainingRows[pick] = swap;
+				}
+			}
+
+			for (int c = 0; c < numClasses; c++) {
+
+				for (int i = 0; i < numTraining; i++) {
+
+					int row = trainingRows[i];
+
+					double p = rowProbabilities[row * numClasses + c];
+
+					gradients[row] = classColumn[row] == c ? p - 1 : p;
+
+					hessians[row] = Math.max (p * (1 - p), MIN_HESSIAN);
+				}
+
+				System.arraycopy (trainingRows, 0, rows, 0, sampleSize);
+
+				long [] skip = sampleColumns (random);
+
+				int root = allocate (1);
+
+				boolean splittable = maxDepth > 0 && sampleSize >= 2 * minLeafSize;
+
+				grow (root, rows, 0, sampleSize, 0, splittable ? histogram (rows, 0, sampleSize, skip) : null, null, skip);
+
+				roots[round * numClasses + c] = root;
+
+				for (int i = 0; i < numTraining; i++) {
+
+					scores[trainingRows[i] * numClasses + c] += weightOf (root, trainingRows[i]);
+				}
+			}
+		}
+
+		gradients = null;
+
+		hessians = null;
+
+		statistic = null;
+
+		cutWork = null;
+
+		cutScore = null;
+
+		branch = null;
+
+		boolean [] numeric = new boolean [numAttributes - 1];
+
+		for (int a = 0; a < numAttributes - 1; a++) {
+
+			numeric[a] = bins[a] != null;
+		}
+
+		bins = null;
+
+		String [] classNames = new String [numClasses];
+
+		for (int c = 0; c < numClasses; c++) {
+
+			classNames[c] = data.getDomains ()[numAttributes - 1].symbol (c);
+		}
+
+		model = new BoostedModel (Arrays.copyOf (nodes, numNodes * BoostedModel.NODE_SIZE), Arrays.copyOf (thresholds, numNodes), Arrays.copyOf (weights, numNodes),
+				roots, baseScores, numeric, classNames);
+
+		nodes = null;
+
+		thresholds = null;
+
+		weights = null;
+
+		return model;
+	}
+
+	/**
+	 * Quantizes the numeric training columns, and lays out the histograms
+	 */
+	private void quantize () {
+
+		int maxBins = data.getHistogramBins () > 0 ? data.getHistogramBins () : NumericBins.MAX_BINS;
+
+		// the bounds come from the training rows only, out of sight of the testing ones
+		bins = data.quantizeColumns (data.getTrainingRows (), maxBins);
+
+		numValues = new int [numAttributes];
+
+		for (int a = 0; a < numAttributes - 1; a++) {
+
+			numValues[a] = bins[a] != null ? bins[a].numBins + 1 : data.getDomains ()[a].size ();
+		}
+
+		histogramOffsets = new int [numAttributes];
+
+		histogramSize = data.layoutHistograms (bins, GradientStatistic.CELL_SIZE, true, histogramOffsets);
+	}
+
+	/**
+	 * @return a bitset of the attributes a tree may not choose from - null if it may choose from all
+	 */
+	private long [] sampleColumns (final Random random) {
+
+		int numInputs = numAttributes - 1;
+
+		int numSampled = Math.max (1, (int) Math.round (columnSample * numInputs));
+
+		if (numSampled >= numInputs) {
+
+			return null;
+		}
+
+		int [] candidates = new int [numInputs];
+
+		for (int a = 0; a < numInputs; a++) {
+
+			candidates[a] = a;
+		}
+
+		for (int k = 0; k < numSampled; k++) {
+
+			int pick = k + random.nextInt (numInputs - k);
+
+			int swap = candidates[k];
+
+			candidates[k] = candidates[pick];
+
+			candidates[pick] = swap;
+		}
+
+		long [] skip = new long [(numAttributes + 63) >>> 6];
+
+		for (int k = numSampled; k < numInputs; k++) {
+
+			skip[candidates[k] >>> 6] |= 1L << candidates[k];
+		}
+
+		return skip;
+	}
+
+	/**
+	 * @return the gradient histogram of rows[start] .. rows[end - 1], over the attributes not skipped
+	 */
+	private double [] histogram (final int [] rows, final int start, final int end, final long [] skip) {
+
+		return data.histogram (statistic, bins, histogramOffsets, histogramSize, rows, start, end, skip);
+	}
+
+	/**
+	 * Makes a node of the rows rows[start] .. rows[end - 1], and splits it as long as a split
+	 * decreases the loss, within maxDepth and minLeafSize
+	 *
+	 * @param node - the index of the node
+	 * @param depth - the number of splits above the node
+	 * @param histogram - the histogram of the rows, or null if the node cannot be split
+	 * @param used - a bitset of the symbolic attributes split on above the node
+	 * @param skip - a bitset of the attributes the tree may not choose from
+	 */
+	private void grow (final int node, final int [] rows, final int start, final int end, final int depth, final double [] histogram, final long [] used, final long [] skip) {
+
+		int numdata = end - start;
+
+		double sumGradients = 0;
+
+		double sumHessians = 0;
+
+		for (int i = start; i < end; i++) {
+
+			sumGradients += gradients[rows[i]];
+
+			sumHessians += hessians[rows[i]];
+		}
+
+		weights[node] = -shrinkage * sumGradients / (sumHessians + lambda);
+
+		nodes[node * BoostedModel.NODE_SIZE + BoostedModel.ATTRIBUTE] = -1;
+
+		if (histogram == null) {
+
+			return;
+		}
+
+		double [] totals = { sumGradients, sumHessians, numdata };
+
+		double parentScore = statistic.score (totals, 0);
+
+		int selectedAttribute = -1;
+
+		int selectedCut = -1;
+
+		double bestGain = MIN_SPLIT_GAIN;
+
+		for (int a = 0; a < numAttributes - 1; a++) {
+
+			if (DecisionTree.contains (skip, a) || DecisionTree.contains (used, a)) {
+
+				continue;
+			}
+
+			int offset = histogramOffsets[a];
+
+			if (bins[a] != null) {
+
+				int cut = data.findCut (statistic, bins[a], histogram, offset, totals, numdata, cutWork, cutScore);
+
+				if (cut >= 0 && cutScore[0] - parentScore > bestGain) {
+
+					bestGain = cutScore[0] - parentScore;
+
+					selectedAttribute = a;
+
+					selectedCut = cut;
+				}
+
+			} else {
+
+				double valuesScore = data.scoreValues (statistic, histogram, offset, numValues[a]);
+
+				// NaN when the attribute cannot split the node
+				if (valuesScore - parentScore > bestGain) {
+
+					bestGain = valuesScore - parentScore;
+
+					selectedAttribute = a;
+
+					selectedCut = -1;
+				}
+			}
+		}
+
+		if (selectedAttribute < 0) {
+
+			return;
+		}
+
+		int [] bounds;
+
+		long [] childUsed = used;
+
+		if (bins[selectedAttribute] != null) {
+
+			byte [] codes = bins[selectedAttribute].codes;
+
+			for (int i = start; i < end; i++) {
+
+				branch[rows[i]] = (codes[rows[i]] & 0xff) <= selectedCut ? 0 : 1;
+			}
+
+			bounds = data.partition (rows, start, end, branch, 2);
+
+			thresholds[node] = bins[selectedAttribute].upper[selectedCut];
+
+		} else {
+
+			bounds = data.partition (rows, start, end, trainingSet.columns[selectedAttribute], numValues[selectedAttribute]);
+
+			childUsed = used != null ? used.clone () : new long [(numAttributes + 63) >>> 6];
+
+			childUsed[selectedAttribute >>> 6] |= 1L << selectedAttribute;
+		}
+
+		int numChildren = bounds.length - 1;
+
+		int firstChild = allocate (numChildren);
+
+		int base = node * BoostedModel.NODE_SIZE;
+
+		nodes[base + BoostedModel.ATTRIBUTE] = selectedAttribute;
+
+		nodes[base + BoostedModel.FIRST_CHILD] = firstChild;
+
+		nodes[base + BoostedModel.NUM_CHILDREN] = numChildren;
+
+		int largest = 0;
+
+		for (int j = 1; j < numChildren; j++) {
+
+			if (bounds[j + 1] - bounds[j] > bounds[largest + 1] - bounds[largest]) {
+
+				largest = j;
+			}
+		}
+
+		// the other children are no larger, so if the largest cannot be split, none can
+		boolean splittable = depth + 1 < maxDepth && bounds[largest + 1] - bounds[largest] >= 2 * minLeafSize;
+
+		double [][] childHistograms = splittable ? data.childHistograms (statistic, bins, histogramOffsets, histogramSize, histogram, rows, bounds, skip)
+				: new double [numChildren][];
+
+		for (int j = 0; j < numChildren; j++) {
+
+			grow (firstChild + j, rows, bounds[j], bounds[j + 1], depth + 1, childHistograms[j], childUsed, skip);
+
+			if (bounds[j + 1] == bounds[j]) {
+
+				// an empty child adds its parent's weight
+				weights[firstChild + j] = weights[node];
+			}
+		}
+	}
+
+	/**
+	 * @return the index of the first of count new, consecutive nodes
+	 */
+	private int allocate (final int count) {
+
+		if (numNodes + count > weights.length) {
+
+			int capacity = Math.max (2 * weights.length, numNodes + count);
+
+			nodes = Arrays.copyOf (nodes, capacity * BoostedModel.NODE_SIZE);
+
+			thresholds = Arrays.copyOf (thresholds, capacity);
+
+			weights = Arrays.copyOf (weights, capacity);
+		}
+
+		int first = numNodes;
+
+		numNodes = numNodes + count;
+
+		return first;
+	}
+
+	/**
+	 * @return the weight of the node a training row reaches in the tree at root
+	 */
+	private double weightOf (final int root, final int row) {
+
+		int node = root;
+
+		while (true) {
+
+			int base = node * BoostedModel.NODE_SIZE;
+
+			int attribute = nodes[base + BoostedModel.ATTRIBUTE];
+
+			if (attribute < 0) {
+
+				return weights[node];
+			}
+
+			int value;
+
+			if (bins[attribute] != null) {
+
+				value = trainingSet.numericColumns[attribute][row] <= thresholds[node] ? 0 : 1;
+
+			} else {
+
+				value = trainingSet.columns[attribute][row];
+			}
+
+			node = nodes[base + BoostedModel.FIRST_CHILD] + value;
+		}
+	}
+
+	/**
+	 * Classifies rows of the testing set and displays the overall results, as DecisionTree does
+	 */
+	public void test (final Dataset testingSet, final int [] rows) {
+
+		int [] predicted = new int [rows.length];
+
+		double [] scores = new double [numClasses];
+
+		for (int i = 0; i < rows.length; i++) {
+
+			predicted[i] = model.predict (testingSet, rows[i], scores);
+		}
+
+		System.out.println ("\n*****************************************************");
+
+		System.out.println ("\nClassifying Test Data Set with " + model.numTrees () + " trees");
+
+		DecisionTree.displayResults (testingSet, rows, predicted);
+	}
+
+	public BoostedModel getModel () {
+
+		return this.model;
+	}
+
+	public void setLambda (final double lambda) {
+
+		if (lambda < 0) {
+
+			throw new IllegalArgumentException ("lambda cannot be negative, was " + lambda);
+		}
+
+		this.lambda = lambda;
+	}
+
+	public double getLambda () {
+
+		return this.lambda;
+	}
+}
@@ -0,0 +1,122 @@
+/**
+ * <code>InductionTask</code> expands a range of the frontier of a level-wise
+ * induction on a ForkJoinPool - either selecting the splits of its nodes, or
+ * splitting them on the selected attributes. The range is halved across workers
+ * while it holds enough rows to be worth it, and the contingency table of a
+ * single large node is filled by several workers (see CountTask); anything below
+ * DecisionTree.PARALLEL_THRESHOLD is expanded serially. The split decisions are
+ * the same as the serial ones, so is the tree.
+ *
+ * @author pandit
+ *
+ * @version 1.0
+ *
+ * Revision Log
+ *
+ * Date       Version        Description
+ ******************************************************************************
+ * 18th Oct    1.0     	First cut at InductionTask
+ *
+ *             1.1     	Expands a range of the frontier instead of a whole subtree
+ *
+ *             1.2     	Selecting and splitting are separate passes
+ ******************************************************************************
+ */
+
+import java.util.concurrent.RecursiveAction;
+
+class InductionTask extends RecursiveAction {
+
+	private static final long serialVersionUID = 1L;
+
+	private final DecisionTree tree;
+
+	private final TreeNode [] frontier;
+
+	/*
+	 * The attribute selected for each node of the frontier, -1 for a leaf
+	 */
+	private final int [] selected;
+
+	private final int from;
+
+	private final int to;
+
+	private final int depth;
+
+	/*
+	 * Whether to split the nodes on their selected attributes, rather than select them
+	 */
+	private final boolean splitting;
+
+
+	/**
+	 * @param tree
+	 * @param frontier - the open nodes of the level
+	 * @param selected - the attribute selected for each node
+	 * @param from - the first node of the range
+	 * @param to - one past the last node of the range
+	 * @param depth - the number of splits above the nodes
+	 * @param splitting - whether to split the nodes, or to select their attributes
+	 */
+	public InductionTask (final DecisionTree tree, final TreeNode [] frontier, final int [] selected, final int from, final int to, final int depth, final boolean splitting) {
+
+		this.tree = tree;
+
+		this.frontier = frontier;
+
+		this.selected = selected;
+
+		this.from = from;
+
+		this.to = to;
+
+		this.depth = depth;
+
+		this.splitting = splitting;
+	}
+
+	protected void compute () {
+
+		if (to - from == 1) {
+
+			expand (from, frontier[from].size () >= DecisionTree.PARALLEL_THRESHOLD);
+
+			return;
+		}
+
+		long numdata = 0;
+
+		for (int i = from; i < to; i++) {
+
+			numdata += frontier[i].size ();
+		}
+
+		if (numdata < DecisionTree.PARALLEL_THRESHOLD) {
+
+			for (int i = from; i < to; i++) {
+
+				expand (i, false);
+			}
+
+			return;
+		}
+
+		// the nodes work on disjoint slices of the row array, so they can be expanded concurrently
+		int middle = (from + to) >>> 1;
+
+		invokeAll (new InductionTask (tree, frontier, selected, from, middle, depth, splitting), new InductionTask (tree, frontier, selected, middle, to, depth, splitting));
+	}
+
+	private void expand (final int i, final boolean parallel) {
+
+		if (splitting) {
+
+			tree.grow (frontier[i], selected[i]);
+
+		} else {
+
+			selected[i] = tree.selectSplit (frontier[i], depth, parallel);
+		}
+	}
+}
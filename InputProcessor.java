@@ -15,6 +15,28 @@
  * 18th Nov	   1.1		Added functionality to read the names file separately
  * 
  * 25th Nov    1.2      Added the code to discretize the linear / nominal data
+ * 
+ * 18th Oct    1.3      Rows are now encoded straight into column-major Datasets
+ * 
+ *             1.4      Data files are read through memory-mapped MappedCsvReaders
+ * 
+ *             1.5      Domains are hash-based SymbolTables instead of Vectors
+ * 
+ *             1.6      Linear / nominal files are parsed once, min / max and all
+ * 
+ *             1.7      Large files are parsed in parallel chunks and merged
+ * 
+ *             1.8      Parsed data files can be kept in a binary DatasetCache
+ * 
+ *             1.9      Linear / nominal attributes are kept numeric instead of binned
+ * 
+ *             1.10     Out-of-core training - the training rows can be streamed to a DiskDataset
+ * 
+ *             1.11     A single data file is read whole and split afterwards, by DataSplit -
+ *                      out of core, the rows are split by DataSplit.isTesting as they are read
+ * 
+ *             1.12     Linear / nominal files are parsed straight into the Dataset, not 
+ *                      staged in NumericColumns and copied
  ******************************************************************************
  */
 
@@ -23,51 +45,58 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.StringTokenizer;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.Vector;
 
 public class InputProcessor {
 	
 	private String [] attributeNames;
 	
-	private Vector [] domains;
+	private SymbolTable [] domains;
 	
-	private TreeNode trainingRoot = new TreeNode ();
+	private Dataset trainingSet;
 	
-	private TreeNode testingRoot = new TreeNode ();
+	private Dataset testingSet;
 	
 	private int numAttributes;
 	
 	private int skipCount = -1;
 	
-	private double [] minLinearArray;
-	
-	private double [] maxLinearArray;
-	
-	public static final int MAX_POSS = +9999;
-
-	public static final int MIN_POSS = -9999;
+	/*
+	 * Flag-field to indicate whether we've at least one linear or nominal attribute. 
+	 */
+	private boolean caseOfLinearOrNominal = false; 
 	
 	/*
-	 * The number of discrete classes for linear and nominal data 
+	 * The number of threads a large data file is parsed with
 	 */
-	public static final int NUM_OF_CLASSES = 4;
+	private int parallelism = 1;
 	
-	public static final String TINY = "TINY";
-		
-	public static final String SMALL = "SMALL";
+	/*
+	 * Each parsing thread gets at least this many bytes of the file
+	 */
+	public static final long MIN_CHUNK_SIZE = 16L << 20;
 	
-	public static final String MEDIUM = "MEDIUM";
+	private String namesFile;
 	
-	public static final String LARGE = "LARGE";
+	/*
+	 * Whether data files are read through their DatasetCache - see readThroughCache
+	 */
+	private boolean dataCache = false;
 	
-	public static final String HUGE = "HUGE";
+	/*
+	 * Out-of-core training only: the training rows, kept on disk instead of in trainingSet
+	 */
+	private DiskDataset trainingStore;
 	
 	/*
-	 * Flag-field to indicate whether we've at least one linear or nominal attribute. 
+	 * The seed of the split of the rows streamed to the trainingStore - see addRow
 	 */
-	private boolean caseOfLinearOrNominal = false; 
+	private long splitSeed;
 
 
 	public InputProcessor () {
@@ -76,24 +105,60 @@ public class InputProcessor {
 	
 	public InputProcessor (DecisionTree instance) throws Exception {
 
+		this.parallelism = instance.getParallelism ();
+		
+		this.dataCache = instance.getDataCache ();
+		
+		this.namesFile = instance.getNamesFile ();
+		
+		this.splitSeed = instance.getSplitSeed ();
+		
 		// read the names file
-		if (readAttributes (instance.getNamesFile ()) < 0) {
+		if (readAttributes (this.namesFile) < 0) {
 			
 			System.out.println ("Problem reading the names file");
 			
 			throw new IOException ();
 		} 
 		
-		// check whether the names-file had any nominal or linear attributes; 
-		// if yes, then create new training / testing files after pre-processing 
-		// the train / test data into discreet bins - tiny / small / medium / large / huge  
+		// the input attributes of a file with linear or nominal attributes are 
+		// all numeric - the tree splits them at thresholds
+		boolean [] numeric = null;
+		
 		if (caseOfLinearOrNominal) {
 			
-			computeMinMaxInTrainingSet (instance.getTrainingDataFile ());
+			numeric = new boolean [numAttributes];
+			
+			Arrays.fill (numeric, 0, numAttributes - 1, true);
+		}
+		
+		this.trainingSet = new Dataset (numAttributes, skipCount > -1, numeric);
+		
+		this.testingSet = new Dataset (numAttributes, skipCount > -1, numeric);
+		
+		// out-of-core training: the training rows go straight to disk, and only the 
+		// testing set is held in memory
+		if (instance.getOutOfCoreDirectory () != null) {
+			
+			this.trainingStore = new DiskDataset (instance.getOutOfCoreDirectory (), numAttributes, numeric);
+			
+			if (readIntoStore (instance.getTrainingDataFile (), this.trainingStore, instance.getTestingDataFile ().equals ("SPLIT")) < 0) {
+				
+				this.trainingStore.delete ();
+				
+				System.out.println ("Problem reading the training file");
+				
+				throw new IOException ();
+			}
+		}
+		
+		// check whether the names-file had any nominal or linear attributes; 
+		// if yes, then read the train / test data as numbers
+		if (caseOfLinearOrNominal) {
 			
-			// populate training data set - moreover, based on whether a test set is provided or not, split training data into 
-			// 2/3-1/3 for train-test.
-			if (discretize (instance.getTrainingDataFile (), this.trainingRoot, instance.getTestingDataFile ()) < 0) {
+			// populate training data set - if no test set is provided, DecisionTree.load splits it 
+			// 2/3-1/3 for train-test afterwards.
+			if (this.trainingStore == null && readNumericDataSets (instance.getTrainingDataFile (), this.trainingSet) < 0) {
 				
 				System.out.println ("Problem reading the training file");
 				
@@ -101,10 +166,10 @@ public class InputProcessor {
 			}
 			
 			// if the testing file is given, then load the testing data set from it,
-			// otherwise skip, since testingRoot would be already populated in the above 'if'.
+			// otherwise skip, since testingSet would be already populated in the above 'if'.
 			if (instance.getTestingDataFile ().equals ("SPLIT") == false) {
 				
-				if (discretize (instance.getTestingDataFile (), this.testingRoot, "DONT_SPLIT") < 0) {
+				if (readNumericDataSets (instance.getTestingDataFile (), this.testingSet) < 0) {
 					
 					System.out.println ("Problem reading the testing file");
 					
@@ -115,9 +180,9 @@ public class InputProcessor {
 	
 		else {
 			
-			// populate training data set - moreover, based on whether a test set is provided or not, split training data into 
-			// 2/3-1/3 for train-test.
-			if (readDataSets (instance.getTrainingDataFile (), this.trainingRoot, instance.getTestingDataFile ()) < 0) {
+			// populate training data set - if no test set is provided, DecisionTree.load splits it 
+			// 2/3-1/3 for train-test afterwards.
+			if (this.trainingStore == null && readDataSets (instance.getTrainingDataFile (), this.trainingSet) < 0) {
 				
 				System.out.println ("Problem reading the training file");
 				
@@ -125,10 +190,10 @@ public class InputProcessor {
 			} 
 			
 			// if the testing file is given, then load the testing data set from it,
-			// otherwise skip, since testingRoot would be already populated in the above 'if'.
+			// otherwise skip, since testingSet would be already populated in the above 'if'.
 			if (instance.getTestingDataFile ().equals ("SPLIT") == false) {
 				
-				if (readDataSets (instance.getTestingDataFile (), this.testingRoot, "DONT_SPLIT") < 0) {
+				if (readDataSets (instance.getTestingDataFile (), this.testingSet) < 0) {
 					
 					System.out.println ("Problem reading the testing file");
 					
@@ -138,10 +203,16 @@ public class InputProcessor {
 		}
 		
 		
+		this.trainingSet.trim ();
+		
+		this.testingSet.trim ();
+		
 		// set all the values back in the decision tree class.
-		instance.setTrainingRoot (this.trainingRoot);
+		instance.setTrainingSet (this.trainingSet);
 		
-		instance.setTestingRoot (this.testingRoot);
+		instance.setTestingSet (this.testingSet);
+		
+		instance.setTrainingStore (this.trainingStore);
 		
 		instance.setAttributeNames (this.attributeNames);
 		
@@ -253,11 +324,11 @@ public class InputProcessor {
 			return -1;
 		}
 		
-		domains = new Vector [numAttributes];
+		domains = new SymbolTable [numAttributes];
 
 		for (int i = 0; i < numAttributes; i++) {
 		
-			domains[i] = new Vector ();
+			domains[i] = new SymbolTable ();
 		}
 
 		attributeNames = new String [numAttributes];
@@ -281,18 +352,37 @@ public class InputProcessor {
 	}
 	
 	
-	public int readDataSets (final String fileName, final TreeNode root, final String toSplit) throws Exception {
+	public int readDataSets (final String fileName, final Dataset root) throws Exception {
 
-		FileInputStream in = null;
+		if (dataCache) {
+			
+			ChunkParser [] parsers = readThroughCache (fileName, false);
+			
+			if (parsers == null) {
+				
+				return -1;
+			}
+			
+			mergeChunks (parsers, domains, root);
+			
+			return 1;
+		}
+		
+		int numChunks = numChunks (fileName);
+		
+		if (numChunks > 1) {
+			
+			return readChunks (fileName, root, numChunks);
+		}
+		
+		MappedCsvReader reader = null;
 		
 		/************************************************
 		 * Reading the Training / Testing data set File	*
 		 ************************************************/		
 		try {
 
-			File inputFile = new File (fileName);
-
-			in = new FileInputStream (inputFile);
+			reader = new MappedCsvReader (fileName);
 
 		} catch (Exception e) {
 
@@ -301,37 +391,82 @@ public class InputProcessor {
 			return -1;
 		}
 
-		BufferedReader bin = new BufferedReader (new InputStreamReader (in));
-
-		String input;
+		int status = parseRecords (reader, domains, root, null);
 		
-		int index = 1;
+		reader.close ();
+		
+		return status;
+	}
+	
+	
+	/**
+	 * Streams the rows of a data file to disk, for out-of-core training. The file 
+	 * is read on the calling thread, as parsing chunks in parallel would hold 
+	 * them all in memory until they are merged.
+	 * 
+	 * @param fileName
+	 * @param store - receives the rows; finished once the file is read
+	 * @param split - whether to send a third of the rows to the testing set, by DataSplit.isTesting
+	 * 
+	 * @return 1, or -1 if the file cannot be read
+	 */
+	public int readIntoStore (final String fileName, final DiskDataset store, final boolean split) throws Exception {
 		
-		while (true) {
+		MappedCsvReader reader = null;
+		
+		try {
 
-			input = bin.readLine ();
+			reader = new MappedCsvReader (fileName);
 
-			if (input == null) {
-				
-				break;
-				
-			} else if (input.startsWith ("|")) {
+		} catch (Exception e) {
+
+			System.err.println ("Unable to open file: " + fileName + "\n" + e);
+
+			return -1;
+		}
+		
+		Dataset splitTo = split ? testingSet : null;
+		
+		int status;
+		
+		if (caseOfLinearOrNominal) {
 			
-				continue;
-				
-			} else if (input.contains ("|")) {
-				
-				input = input.substring (0, input.indexOf ("|"));
-			}
+			status = parseNumericRecords (reader, domains[numAttributes - 1], store, splitTo);
 			
-			if (input.equals ("")) {
-				
-				continue;
-			}
+		} else {
+			
+			status = parseRecords (reader, domains, store, splitTo);
+		}
+		
+		reader.close ();
+		
+		store.finish ();
+		
+		return status;
+	}
+	
+	
+	/**
+	 * Encodes the records of the reader into a data set
+	 * 
+	 * @param reader
+	 * @param tables - the domains to encode the symbols with
+	 * @param root - the data set receiving the rows
+	 * @param splitTo - the data set receiving a third of the rows, or null not to split
+	 * 
+	 * @return 1, or -1 if a record has the wrong number of fields
+	 */
+	public int parseRecords (final MappedCsvReader reader, final SymbolTable [] tables, final RowSink root, final RowSink splitTo) throws Exception {
 
-			StringTokenizer tokenizer = new StringTokenizer (input, ",");
+		int index = 1;
+		
+		int [] values = new int [numAttributes];
+		
+		String label = null;
+		
+		while (reader.nextRecord ()) {
 
-			int numtokens = tokenizer.countTokens ();
+			int numtokens = reader.numFields ();
 			
 			if (skipCount > -1) {
 				
@@ -345,16 +480,12 @@ public class InputProcessor {
 				return -1;
 			}
 
-			DataPoint point = new DataPoint (numAttributes);
-
 			// if there is no label to skip
 			if (skipCount == -1) {
-				
-				point.label = "Example#" + index;
 
 				for (int i = 0; i < numAttributes; i++) {
 
-					point.attributes[i] = getSymbolValue (i, tokenizer.nextToken ());
+					values[i] = tables[i].intern (reader, i);
 				}
 				
 			} else if (skipCount > -1) {
@@ -366,403 +497,469 @@ public class InputProcessor {
 					// assign label to the data point and skip it as an attribute field
 					if (panditIndex == skipCount) {
 						
-						point.label = tokenizer.nextToken ();
+						label = reader.field (panditIndex);
 						
 						continue;
 					}
 					
-					point.attributes[attributeIndex] = getSymbolValue (attributeIndex, tokenizer.nextToken ());
+					values[attributeIndex] = tables[attributeIndex].intern (reader, panditIndex);
 					
 					attributeIndex = attributeIndex + 1;
 				}
 			}
 			
+			addRow (root, splitTo, values, null, index, label);
 			
-			/************************************************
-			 * Required 2/3-1/3 random data split follows 	*
-			 ************************************************/		
-			if (toSplit.equals ("SPLIT")) {
-				
-				double randomNumber = 3 * Math.random ();
-				
-				if (randomNumber > 2) {
-					
-					testingRoot.data.addElement (point);					
-					
-				} else {
+			index = index + 1;
+		}
+		
+		return 1;
+	}
+	
+	
+	private void addRow (final RowSink root, final RowSink splitTo, final int [] values, final double [] numericValues, final int id, final String label) throws IOException {
+		
+		/************************************************
+		 * Required 2/3-1/3 data split follows, by a	*
+		 * seeded hash of the row's label				*
+		 ************************************************/		
+		if (splitTo != null) {
+			
+			if (DataSplit.isTesting (label != null ? label : "Example#" + id, DataSplit.TEST_FRACTION, splitSeed)) {
 				
-					root.data.addElement (point);
-				}
+				splitTo.addRow (values, numericValues, id, label);
 				
 			} else {
-				
-				root.data.addElement (point);
+			
+				root.addRow (values, numericValues, id, label);
 			}
 			
-			index = index + 1;
+		} else {
+			
+			root.addRow (values, numericValues, id, label);
 		}
-		
-		in.close ();
-		
-		bin.close ();
-		
-		return 1;
 	}
 	
 	
-	public int getSymbolValue (final int attribute, final String symbol) {
-
-		int index = domains[attribute].indexOf (symbol);
-
-		if (index < 0) {
-
-			domains[attribute].addElement (symbol);
-
-			return domains[attribute].size () - 1;
-		}
+	/**
+	 * @return the number of chunks to parse the file in - 1 to read it on the calling thread
+	 */
+	private int numChunks (final String fileName) {
+		
+		long size = new File (fileName).length ();
 		
-		return index;
+		return (int) Math.max (1, Math.min (parallelism, size / MIN_CHUNK_SIZE));
 	}
-
 	
-	public int discretize (final String fileName, final TreeNode root, final String toSplit) throws Exception {
-
-		FileInputStream in = null;
+	
+	/**
+	 * Parses the chunks of a file concurrently, each against its own symbol tables
+	 * 
+	 * @return the finished parsers, in file order, or null if a chunk could not be parsed
+	 */
+	private ChunkParser [] parseChunks (final String fileName, final int numChunks, final boolean numeric) throws Exception {
 		
-		/*****************************************************************
-		 * Reading and discretizing the Training / Testing data set File *
-		 *****************************************************************/
-		try {
-
-			File inputFile = new File (fileName);
-
-			in = new FileInputStream (inputFile);
-
-		} catch (Exception e) {
-
-			System.err.println ("Unable to open file: " + fileName + "\n" + e);
-
-			return -1;
-		}
-
-		BufferedReader bin = new BufferedReader (new InputStreamReader (in));
-
-		String input;
+		long [] bounds = MappedCsvReader.chunkBounds (fileName, numChunks);
 		
-		int index = 1;
+		ChunkParser [] parsers = new ChunkParser [numChunks];
 		
-		while (true) {
-
-			input = bin.readLine ();
-
-			if (input == null) {
-				
-				break;
-				
-			} else if (input.startsWith ("|")) {
+		for (int k = 0; k < numChunks; k++) {
 			
-				continue;
-				
-			} else if (input.contains ("|")) {
-				
-				input = input.substring (0, input.indexOf ("|"));
-			}
+			SymbolTable [] tables = new SymbolTable [numAttributes];
 			
-			if (input.equals ("")) {
+			for (int i = 0; i < numAttributes; i++) {
 				
-				continue;
+				tables[i] = new SymbolTable ();
 			}
-
-			StringTokenizer tokenizer = new StringTokenizer (input, ",");
-
-			int numtokens = tokenizer.countTokens ();
 			
-			if (skipCount > -1) {
+			if (numeric) {
 				
-				if (numtokens != numAttributes + 1) {
-					
-					return -1;
-				}
-				
-			} else if (numtokens != numAttributes) {
-
-				return -1;
-			}
-
-			DataPoint point = new DataPoint (numAttributes);
-
-			// if there is no label to skip
-			if (skipCount == -1) {
+				parsers[k] = new ChunkParser (this, fileName, bounds[k], bounds[k + 1], tables, new NumericColumns (numAttributes - 1, skipCount > -1));
 				
-				point.label = "Example#" + index;
+			} else {
 				
-				String newString;
-
-				for (int attributeIndex = 0; attributeIndex < numAttributes; attributeIndex++) {
+				parsers[k] = new ChunkParser (this, fileName, bounds[k], bounds[k + 1], tables, new Dataset (numAttributes, skipCount > -1));
+			}
+		}
+		
+		ForkJoinPool pool = new ForkJoinPool (parallelism);
+		
+		List<Future<Object>> futures = pool.invokeAll (Arrays.asList (parsers));
+		
+		pool.shutdown ();
+		
+		for (int k = 0; k < numChunks; k++) {
 			
-					// don't discretize the class attribute
-					if (attributeIndex == numAttributes-1) {
-					
-						point.attributes[attributeIndex] = getSymbolValue (attributeIndex, tokenizer.nextToken ());
-						
-						continue;
-					}
-						
-					try {
-						
-						double nextToken = Double.valueOf (tokenizer.nextToken ());
-						
-						// Based on the computed bin string, form the new string to be written
-						// to the new training / testing file
-						newString = computeBin (nextToken, attributeIndex);
-						
-					} catch (NumberFormatException excp) {
-						
-						// case when a '?' is encountered - assign the 'HUGE' class by default
-						newString = HUGE;
-					}
-
-					point.attributes[attributeIndex] = getSymbolValue (attributeIndex, newString);
-				}
-				
-			} else if (skipCount > -1) {
-
-				int attributeIndex = 0;
-				
-				String newString; 
+			// re-throws whatever went wrong in the chunk
+			futures.get (k).get ();
+			
+			if (parsers[k].status < 0) {
 				
-				for (int panditIndex = 0; panditIndex < numAttributes + 1; panditIndex++) {
-
-					// assign label to the data point and skip it as an attribute field
-					if (panditIndex == skipCount) {
-						
-						point.label = tokenizer.nextToken ();
-						
-						continue;
-					}
-					
-					// don't discretize the class attribute
-					if (panditIndex == numAttributes) {
-					
-						point.attributes[attributeIndex] = getSymbolValue (attributeIndex, tokenizer.nextToken ());
-						
-						attributeIndex = attributeIndex + 1;
-						
-						continue;
-					}
-					
-					try {
-						
-						double nextToken = Double.valueOf (tokenizer.nextToken ());
-						
-						// Based on the computed bin string, form the new string to be written
-						// to the new training / testing file
-						newString = computeBin (nextToken, index);
-						
-					} catch (NumberFormatException excp) {
-						
-						// case when a '?' is encountered - assign the 'HUGE' class by default
-						newString = HUGE;
-					}
-
-					point.attributes[attributeIndex] = getSymbolValue (attributeIndex, newString);
-					
-					attributeIndex = attributeIndex + 1;
-				}
+				return null;
 			}
+		}
+		
+		return parsers;
+	}
+	
+	
+	/**
+	 * Maps the codes of a chunk's symbol tables onto the target tables (normally the 
+	 * shared domains). Merging the chunks in file order, each table in its own code 
+	 * order, gives every symbol the code a serial read of the file would have given it.
+	 */
+	private int [][] remap (final SymbolTable [] tables, final SymbolTable [] target) {
+		
+		int [][] remap = new int [numAttributes][];
+		
+		for (int i = 0; i < numAttributes; i++) {
 			
+			remap[i] = new int [tables[i].size ()];
 			
-			/************************************************
-			 * Required 2/3-1/3 random data split follows 	*
-			 ************************************************/		
-			if (toSplit.equals ("SPLIT")) {
-				
-				double randomNumber = 3 * Math.random ();
-				
-				if (randomNumber > 2) {
-					
-					testingRoot.data.addElement (point);					
-					
-				} else {
-				
-					root.data.addElement (point);
-				}
+			for (int code = 0; code < remap[i].length; code++) {
 				
-			} else {
-				
-				root.data.addElement (point);
+				remap[i][code] = target[i].intern (tables[i].symbol (code));
 			}
-			
-			index = index + 1;
 		}
 		
-		in.close ();
+		return remap;
+	}
+	
+	
+	private int readChunks (final String fileName, final Dataset root, final int numChunks) throws Exception {
 		
-		bin.close ();
+		ChunkParser [] parsers = parseChunks (fileName, numChunks, false);
+		
+		if (parsers == null) {
+			
+			return -1;
+		}
+		
+		mergeChunks (parsers, domains, root);
 		
 		return 1;
 	}
 	
 	
 	/**
-	 * Computes the Bin for the passed token based on the min / max
-	 * values of the corresponding nominal / linear attribute 
-	 * 
-	 * @param token
-	 * @param whichAttribute
+	 * Merges parsed chunks, in file order, into a data set
 	 * 
-	 * @return a String representing a discrete bin
+	 * @param parsers - the parsed chunks; released as they are merged
+	 * @param target - the tables to re-encode the symbols with
+	 * @param root - the data set receiving the rows
 	 */
-	public String computeBin (final double token, final int whichAttribute) {
-	
-		int bin = -1;
+	private void mergeChunks (final ChunkParser [] parsers, final SymbolTable [] target, final Dataset root) {
+		
+		int [] values = new int [numAttributes];
+		
+		int idOffset = 0;
 		
-		for (int index = 1; index <= NUM_OF_CLASSES; index++) {
+		for (int k = 0; k < parsers.length; k++) {
 			
-			double classComparisonValue = 1. * (index * (this.maxLinearArray[whichAttribute] - this.minLinearArray[whichAttribute]) / NUM_OF_CLASSES) + this.minLinearArray[whichAttribute];
+			Dataset chunk = parsers[k].rows;
 			
-			if (token <= classComparisonValue) {
+			int [][] remap = remap (parsers[k].tables, target);
+			
+			for (int row = 0; row < chunk.numRows; row++) {
 				
-				bin = index;
+				for (int i = 0; i < numAttributes; i++) {
+					
+					values[i] = remap[i][chunk.columns[i][row]];
+				}
 				
-				break;
+				root.addRow (values, null, idOffset + chunk.ids[row], chunk.labels == null ? null : chunk.labels[row]);
 			}
+			
+			// the examples are numbered across the whole file
+			idOffset += chunk.numRows;
+			
+			parsers[k] = null;
 		}
+	}
+	
+	
+	/**
+	 * Reads a data file through its DatasetCache: a current cache is loaded as it is, 
+	 * otherwise the file is parsed and the cache (re-)written for the next run. 
+	 * The file comes back as a single chunk, encoded against its own symbol tables.
+	 * 
+	 * @return the parsed file, or null if it cannot be read
+	 */
+	private ChunkParser [] readThroughCache (final String fileName, final boolean numeric) throws Exception {
 		
-		// The encountered token extends beyond the defined limits as per the training set;
-		// thus, assign it to the highest class (unbounded)
-		if (bin == -1) {
+		if (new File (fileName).isFile () == false) {
+			
+			System.err.println ("Unable to open file: " + fileName);
 			
-			bin = NUM_OF_CLASSES + 1;
+			return null;
 		}
 		
-		switch (bin) {
+		ChunkParser whole = DatasetCache.read (fileName, namesFile, attributeNames, skipCount, numeric);
+		
+		if (whole != null) {
 			
-			case 1: return TINY;
+			return new ChunkParser [] { whole };
+		}
+		
+		ChunkParser [] parsers = parseChunks (fileName, numChunks (fileName), numeric);
+		
+		if (parsers == null) {
 			
-			case 2: return SMALL;
+			return null;
+		}
+		
+		whole = parsers[0];
+		
+		// the cache holds the file as one chunk - combine the chunks into fresh, file-local tables
+		if (parsers.length > 1) {
 			
-			case 3: return MEDIUM;
+			SymbolTable [] tables = new SymbolTable [numAttributes];
 			
-			case 4: return LARGE;
+			for (int i = 0; i < numAttributes; i++) {
+				
+				tables[i] = new SymbolTable ();
+			}
 			
-			case 5: return HUGE;
+			if (numeric) {
+				
+				NumericColumns columns = new NumericColumns (numAttributes - 1, skipCount > -1);
+				
+				mergeNumericChunks (parsers, tables, columns);
+				
+				whole = new ChunkParser (this, fileName, 0, -1, tables, columns);
+				
+			} else {
+				
+				Dataset rows = new Dataset (numAttributes, skipCount > -1);
+				
+				mergeChunks (parsers, tables, rows);
+				
+				whole = new ChunkParser (this, fileName, 0, -1, tables, rows);
+			}
 			
-			default: return HUGE;
+			whole.status = 1;
 		}
+		
+		// a cache that cannot be written only costs the next run its parse
+		DatasetCache.write (fileName, namesFile, attributeNames, skipCount, whole);
+		
+		return new ChunkParser [] { whole };
 	}
 	
 	
 	/**
-	 * This function computes the min / max bounds for a each
-	 * nominal / linear attribute in the training data set	 *  
+	 * Parses a linear / nominal data file straight into a data set - the input attributes
+	 * as numbers, the class attribute encoded
 	 * 
-	 * @param trainingFileName
+	 * @param fileName
+	 * @param root - an empty data set, receiving the rows
 	 * 
-	 * @throws IOException
+	 * @return 1, or -1 if the file cannot be read
 	 */
-	public void computeMinMaxInTrainingSet (final String trainingFileName) throws IOException {
+	public int readNumericDataSets (final String fileName, final Dataset root) throws Exception {
+
+		if (dataCache) {
+			
+			ChunkParser [] parsers = readThroughCache (fileName, true);
+			
+			if (parsers == null) {
+				
+				return -1;
+			}
+			
+			adoptNumericChunk (parsers[0], root);
+			
+			return 1;
+		}
 		
-		FileInputStream in = null;
+		int numChunks = numChunks (fileName);
+		
+		if (numChunks > 1) {
+			
+			ChunkParser [] parsers = parseChunks (fileName, numChunks, true);
+			
+			if (parsers == null) {
+				
+				return -1;
+			}
+			
+			mergeNumericChunks (parsers, domains, root);
+			
+			return 1;
+		}
 		
-		/*********************************************************
-		 * Computing min / max of the linear and nominal data in *
-		 * the training data set. 								 *
-		 *********************************************************/		
+		MappedCsvReader reader = null;
+		
+		/*****************************************************************
+		 * Reading the linear / nominal Training / Testing data set File *
+		 *****************************************************************/
 		try {
 
-			File inputFile = new File (trainingFileName);
-
-			in = new FileInputStream (inputFile);
+			reader = new MappedCsvReader (fileName);
 
 		} catch (Exception e) {
 
-			System.err.println ("Unable to open file during discretization process: " + trainingFileName + "\n" + e);
-			
-			System.exit (-1);
-		}
+			System.err.println ("Unable to open file: " + fileName + "\n" + e);
 
-		BufferedReader bin = new BufferedReader (new InputStreamReader (in));
+			return -1;
+		}
 
-		String input = bin.readLine ();
+		int status = parseNumericRecords (reader, domains[numAttributes - 1], root, null);
 		
-		if (input == null) {
+		reader.close ();
 		
-			System.out.println ("File empty: " + trainingFileName);
-			
-			System.exit (1);
-		}
-		
-		StringTokenizer tokenizer = new StringTokenizer (input, ",");
+		return status;
+	}
+	
+	
+	/**
+	 * Parses the records of a linear / nominal reader - the input attributes as 
+	 * numbers, the class attribute encoded
+	 * 
+	 * @param reader
+	 * @param classes - the domain to encode the class symbols with
+	 * @param root - receives the rows
+	 * @param splitTo - receives a third of the rows, or null not to split
+	 * 
+	 * @return 1, or -1 if a record has the wrong number of fields
+	 */
+	public int parseNumericRecords (final MappedCsvReader reader, final SymbolTable classes, final RowSink root, final RowSink splitTo) throws Exception {
 
-		int numTokens = tokenizer.countTokens ();		
+		int index = 1;
 		
-		double [] minArray = new double [numTokens];
+		double [] row = new double [numAttributes];
 		
-		double [] maxArray = new double [numTokens];
+		int [] values = new int [numAttributes];
+		
+		String label = null;
+		
+		while (reader.nextRecord ()) {
 
-		for (int index = 0; index < numTokens; index++) {
+			int numtokens = reader.numFields ();
 			
-			minArray[index] = MAX_POSS;
+			if (skipCount > -1) {
+				
+				if (numtokens != numAttributes + 1) {
+					
+					return -1;
+				}
+				
+			} else if (numtokens != numAttributes) {
+
+				return -1;
+			}
+
+			int attributeIndex = 0;
 			
-			maxArray[index] = MIN_POSS;
-		}
+			int cls = -1;
 			
-		while (true) {
+			for (int panditIndex = 0; panditIndex < numtokens; panditIndex++) {
 
-			if (input == null) {
+				// assign label to the data point and skip it as an attribute field
+				if (panditIndex == skipCount) {
+					
+					label = reader.field (panditIndex);
+					
+					continue;
+				}
 				
-				break;
+				// don't parse the class attribute - it is a symbol
+				if (attributeIndex == numAttributes - 1) {
 				
-			} else if (input.startsWith ("|")) {
-			
-				continue;
+					cls = classes.intern (reader, panditIndex);
+					
+					continue;
+				}
 				
-			} else if (input.contains ("|")) {
+				// a '?' comes back as NaN
+				row[attributeIndex] = reader.parseDouble (panditIndex);
 				
-				input = input.substring (0, input.indexOf ("|"));
+				attributeIndex = attributeIndex + 1;
 			}
 			
-			if (input.equals ("")) {
-				
-				continue;
-			}
-
-			tokenizer = new StringTokenizer (input, ",");
-
-			numTokens = tokenizer.countTokens ();
+			values[numAttributes - 1] = cls;
+			
+			addRow (root, splitTo, values, row, index, label);
+			
+			index = index + 1;
+		}
+		
+		return 1;
+	}
+	
+	
+	/**
+	 * Merges parsed linear / nominal chunks, in file order, into a data set - or into the
+	 * single set of columns a DatasetCache holds
+	 * 
+	 * @param parsers - the parsed chunks; released as they are merged
+	 * @param target - the tables to re-encode the classes with
+	 * @param root - receives the rows
+	 */
+	private void mergeNumericChunks (final ChunkParser [] parsers, final SymbolTable [] target, final RowSink root) throws IOException {
+		
+		int [] values = new int [numAttributes];
+		
+		double [] numericValues = new double [numAttributes];
+		
+		int idOffset = 0;
+		
+		for (int k = 0; k < parsers.length; k++) {
+			
+			NumericColumns chunk = parsers[k].numericRows;
 			
-			for (int index = 0; index < numTokens; index++) {
+			int [] classRemap = remap (parsers[k].tables, target)[numAttributes - 1];
+			
+			for (int r = 0; r < chunk.numRows; r++) {
 				
-				try {
-					
-					double nextToken = Double.valueOf (tokenizer.nextToken ());
-					
-					if (nextToken < minArray[index]) {
-						
-						minArray[index] = nextToken;
-					}
-					
-					if (nextToken > maxArray[index]) {
-						
-						maxArray[index] = nextToken;
-					} 
+				for (int i = 0; i < numAttributes - 1; i++) {
 					
-				} catch (NumberFormatException excp) {
-					
-					// case when a '?' is encountered - do nothing 
+					// a '?' stays NaN - the tree sends it the way of the larger values
+					numericValues[i] = chunk.values[i][r];
 				}
+				
+				values[numAttributes - 1] = classRemap[chunk.classes[r]];
+				
+				root.addRow (values, numericValues, idOffset + chunk.ids[r], chunk.labels == null ? null : chunk.labels[r]);
 			}
 			
-			input = bin.readLine ();
+			idOffset += chunk.numRows;
+			
+			parsers[k] = null;
 		}
+	}
+	
+	
+	/**
+	 * Hands the columns of a single parsed linear / nominal chunk - a whole file, as 
+	 * read from its DatasetCache - over to an empty data set, with the classes re-encoded 
+	 * in place. Nothing is copied.
+	 * 
+	 * @param parser - the parsed file
+	 * @param root - an empty data set
+	 */
+	private void adoptNumericChunk (final ChunkParser parser, final Dataset root) {
 		
-		in.close ();
+		NumericColumns chunk = parser.numericRows;
 		
-		bin.close ();
+		int [] classRemap = remap (parser.tables, domains)[numAttributes - 1];
+		
+		for (int r = 0; r < chunk.numRows; r++) {
+			
+			chunk.classes[r] = classRemap[chunk.classes[r]];
+		}
+		
+		for (int i = 0; i < numAttributes - 1; i++) {
+			
+			root.numericColumns[i] = chunk.values[i];
+		}
+		
+		root.columns[numAttributes - 1] = chunk.classes;
+		
+		root.ids = chunk.ids;
 		
-		this.minLinearArray = minArray;
+		root.labels = chunk.labels;
 		
-		this.maxLinearArray = maxArray;
+		root.numRows = chunk.numRows;
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,500 @@
+/**
+ * <code>MappedCsvReader</code> reads a comma separated data file through a
+ * memory-mapped view of it and tokenizes the records in place. A field is
+ * only turned into a String on request - numbers are parsed straight from
+ * the mapped bytes and symbols can be looked up by their bytes (see SymbolTable).
+ *
+ * Records follow the conventions of the original BufferedReader / StringTokenizer
+ * loop: anything after a '|' is a comment, empty lines are skipped, and runs
+ * of ',' count as a single separator.
+ *
+ * @author pandit
+ *
+ * @version 1.0
+ *
+ * Revision Log
+ *
+ * Date       Version        Description
+ ******************************************************************************
+ * 18th Oct    1.0     	First cut at MappedCsvReader
+ *
+ *             1.1     	Reading a byte range of the file, for the chunked loader
+ ******************************************************************************
+ */
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+class MappedCsvReader {
+
+	/*
+	 * Files are mapped a window at a time, as a single mapping cannot exceed 2GB
+	 */
+	public static final int WINDOW_SIZE = 1 << 30;
+
+	private static final double [] POWERS_OF_TEN = {
+
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+		1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+
+	private RandomAccessFile file;
+
+	private FileChannel channel;
+
+	/*
+	 * The offset just past the last byte to read - the file size, unless reading a chunk
+	 */
+	private long endOffset;
+
+	private long windowStart;
+
+	private MappedByteBuffer buffer;
+
+	private int position;
+
+	private int [] fieldStarts = new int [64];
+
+	private int [] fieldEnds = new int [64];
+
+	private int numFields;
+
+
+	public MappedCsvReader (final String fileName) throws IOException {
+
+		this (fileName, 0, -1);
+	}
+
+	/**
+	 * Reads the records of a byte range of the file
+	 *
+	 * @param fileName
+	 * @param start - the offset to start at; must be the start of a line
+	 * @param end - the offset to stop at; must be the start of a line, or -1 for the end of the file
+	 */
+	public MappedCsvReader (final String fileName, final long start, final long end) throws IOException {
+
+		file = new RandomAccessFile (fileName, "r");
+
+		channel = file.getChannel ();
+
+		endOffset = end < 0 ? channel.size () : end;
+
+		map (start);
+	}
+
+	/**
+	 * Cuts a file into byte ranges of about the same size, each of which starts
+	 * at the beginning of a line (right after a '\n')
+	 *
+	 * @param fileName
+	 * @param numChunks
+	 *
+	 * @return numChunks + 1 offsets - chunk k covers bounds[k] .. bounds[k + 1] - 1
+	 */
+	public static long [] chunkBounds (final String fileName, final int numChunks) throws IOException {
+
+		long size = new File (fileName).length ();
+
+		long [] bounds = new long [numChunks + 1];
+
+		bounds[numChunks] = size;
+
+		for (int k = 1; k < numChunks; k++) {
+
+			long position = Math.max (size * k / numChunks, bounds[k - 1]);
+
+			if (position == 0 || position >= size) {
+
+				bounds[k] = Math.min (position, size);
+
+				continue;
+			}
+
+			// start one byte early, so that a cut falling right after a '\n' stays where it is
+			InputStream in = new BufferedInputStream (new FileInputStream (fileName));
+
+			long skipped = 0;
+
+			while (skipped < position - 1) {
+
+				skipped += in.skip (position - 1 - skipped);
+			}
+
+			int b;
+
+			while ((b = in.read ()) != -1 && b != '\n') {
+
+				position++;
+			}
+
+			in.close ();
+
+			bounds[k] = b == -1 ? size : position;
+		}
+
+		return bounds;
+	}
+
+	private void map (final long start) throws IOException {
+
+		windowStart = start;
+
+		buffer = channel.map (FileChannel.MapMode.READ_ONLY, start, Math.min (WINDOW_SIZE, endOffset - start));
+
+		position = 0;
+	}
+
+	/**
+	 * Advances to the next record
+	 *
+	 * @return false at the end of the file
+	 */
+	public boolean nextRecord () throws IOException {
+
+		while (true) {
+
+			int limit = buffer.limit ();
+
+			if (position >= limit) {
+
+				if (windowStart + limit >= endOffset) {
+
+					return false;
+				}
+
+				map (windowStart + position);
+
+				continue;
+			}
+
+			int lineStart = position;
+
+			int lineEnd = lineStart;
+
+			while (lineEnd < limit) {
+
+				byte b = buffer.get (lineEnd);
+
+				if (b == '\n' || b == '\r') {
+
+					break;
+				}
+
+				lineEnd++;
+			}
+
+			// the line runs past the window - re-map starting at the line and scan it again
+			if (lineEnd == limit && windowStart + limit < endOffset) {
+
+				if (lineStart == 0) {
+
+					throw new IOException ("Record longer than " + WINDOW_SIZE + " bytes");
+				}
+
+				map (windowStart + lineStart);
+
+				continue;
+			}
+
+			position = lineEnd + 1;
+
+			if (lineEnd < limit && buffer.get (lineEnd) == '\r' && position < limit && buffer.get (position) == '\n') {
+
+				position = position + 1;
+			}
+
+			if (lineEnd == lineStart || buffer.get (lineStart) == '|') {
+
+				continue;
+			}
+
+			for (int i = lineStart; i < lineEnd; i++) {
+
+				if (buffer.get (i) == '|') {
+
+					lineEnd = i;
+
+					break;
+				}
+			}
+
+			tokenize (lineStart, lineEnd);
+
+			return true;
+		}
+	}
+
+	private void tokenize (final int start, final int end) {
+
+		numFields = 0;
+
+		int i = start;
+
+		while (i < end) {
+
+			// consecutive separators do not delimit empty fields, as with StringTokenizer
+			while (i < end && buffer.get (i) == ',') {
+
+				i++;
+			}
+
+			if (i == end) {
+
+				break;
+			}
+
+			if (numFields == fieldStarts.length) {
+
+				fieldStarts = Arrays.copyOf (fieldStarts, numFields * 2);
+
+				fieldEnds = Arrays.copyOf (fieldEnds, numFields * 2);
+			}
+
+			fieldStarts[numFields] = i;
+
+			while (i < end && buffer.get (i) != ',') {
+
+				i++;
+			}
+
+			fieldEnds[numFields] = i;
+
+			numFields = numFields + 1;
+		}
+	}
+
+	public int numFields () {
+
+		return numFields;
+	}
+
+	/**
+	 * @return the field as a String - allocates, so best kept for values that need keeping
+	 */
+	public String field (final int field) {
+
+		int start = fieldStarts[field];
+
+		byte [] bytes = new byte [fieldEnds[field] - start];
+
+		for (int i = 0; i < bytes.length; i++) {
+
+			bytes[i] = buffer.get (start + i);
+		}
+
+		return new String (bytes, Charset.defaultCharset ());
+	}
+
+	public int fieldLength (final int field) {
+
+		return fieldEnds[field] - fieldStarts[field];
+	}
+
+	/**
+	 * @return the i-th byte of the field
+	 */
+	public byte fieldByte (final int field, final int i) {
+
+		return buffer.get (fieldStarts[field] + i);
+	}
+
+	public int hashField (final int field) {
+
+		int hash = 0;
+
+		for (int i = fieldStarts[field]; i < fieldEnds[field]; i++) {
+
+			hash = 31 * hash + buffer.get (i);
+		}
+
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * Parses the field as a double, the way Double.valueOf would, without
+	 * creating a String for it
+	 *
+	 * @return the value, or NaN if the field is not a number (such as a '?')
+	 */
+	public double parseDouble (final int field) {
+
+		int start = fieldStarts[field];
+
+		int end = fieldEnds[field];
+
+		// Double.valueOf ignores surrounding white space
+		while (start < end && buffer.get (start) <= ' ') {
+
+			start++;
+		}
+
+		while (end > start && buffer.get (end - 1) <= ' ') {
+
+			end--;
+		}
+
+		if (end - start == 1 && buffer.get (start) == '?') {
+
+			return Double.NaN;
+		}
+
+		int i = start;
+
+		boolean negative = false;
+
+		if (i < end && (buffer.get (i) == '-' || buffer.get (i) == '+')) {
+
+			negative = buffer.get (i) == '-';
+
+			i++;
+		}
+
+		long mantissa = 0;
+
+		int digits = 0;
+
+		int exponent = 0;
+
+		boolean seenDigit = false;
+
+		while (i < end && buffer.get (i) >= '0' && buffer.get (i) <= '9') {
+
+			seenDigit = true;
+
+			if (digits < 18) {
+
+				mantissa = mantissa * 10 + (buffer.get (i) - '0');
+
+				if (mantissa != 0) {
+
+					digits++;
+				}
+
+			} else {
+
+				exponent++;
+			}
+
+			i++;
+		}
+
+		if (i < end && buffer.get (i) == '.') {
+
+			i++;
+
+			while (i < end && buffer.get (i) >= '0' && buffer.get (i) <= '9') {
+
+				seenDigit = true;
+
+				if (digits < 18) {
+
+					mantissa = mantissa * 10 + (buffer.get (i) - '0');
+
+					if (mantissa != 0) {
+
+						digits++;
+					}
+
+					exponent--;
+				}
+
+				i++;
+			}
+		}
+
+		if (seenDigit && i < end && (buffer.get (i) == 'e' || buffer.get (i) == 'E')) {
+
+			i++;
+
+			boolean negativeExponent = false;
+
+			if (i < end && (buffer.get (i) == '-' || buffer.get (i) == '+')) {
+
+				negativeExponent = buffer.get (i) == '-';
+
+				i++;
+			}
+
+			int value = 0;
+
+			boolean seenExponentDigit = false;
+
+			while (i < end && buffer.get (i) >= '0' && buffer.get (i) <= '9' && value < 100000) {
+
+				seenExponentDigit = true;
+
+				value = value * 10 + (buffer.get (i) - '0');
+
+				i++;
+			}
+
+			if (seenExponentDigit == false) {
+
+				return slowParse (start, end);
+			}
+
+			exponent += negativeExponent ? -value : value;
+		}
+
+		// with at most 15 digits and a power of ten that is itself exact, one multiplication
+		// or division rounds correctly - anything else goes through Double.parseDouble
+		if (seenDigit == false || i != end || digits > 15 || exponent < -22 || exponent > 22) {
+
+			return slowParse (start, end);
+		}
+
+		double value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+
+		return negative ? -value : value;
+	}
+
+	private double slowParse (final int start, final int end) {
+
+		// symbols such as class names are common here - reject them without a String
+		int first = start;
+
+		if (first < end && (buffer.get (first) == '-' || buffer.get (first) == '+')) {
+
+			first++;
+		}
+
+		if (first == end || (buffer.get (first) != '.' && buffer.get (first) != 'I' && buffer.get (first) != 'N' && (buffer.get (first) < '0' || buffer.get (first) > '9'))) {
+
+			return Double.NaN;
+		}
+
+		byte [] bytes = new byte [end - start];
+
+		for (int i = 0; i < bytes.length; i++) {
+
+			bytes[i] = buffer.get (start + i);
+		}
+
+		try {
+
+			return Double.parseDouble (new String (bytes, Charset.defaultCharset ()));
+
+		} catch (NumberFormatException excp) {
+
+			return Double.NaN;
+		}
+	}
+
+	public void close () throws IOException {
+
+		channel.close ();
+
+		file.close ();
+
+		buffer = null;
+	}
+}
@@ -0,0 +1,909 @@
+/**
+ * <code>MappedTreeModel</code> scores rows straight off a memory-mapped model
+ * file written by TreeModel.save. Nothing is deserialized on open - the node
+ * records, the class distributions and the symbol dictionaries are read from
+ * the mapping as prediction needs them, so even a large model is ready to use
+ * at once and its pages are shared by every process that maps the same file.
+ * Like TreeModel it is immutable, and a single instance can serve any number
+ * of threads.
+ *
+ * Layout (little-endian, every section 4-byte aligned): a header of magic,
+ * version, number of attributes (the class attribute included), number of
+ * classes, number of nodes, size of the distributions and the offsets of the
+ * nodes, the distributions, the dictionary directory, the thresholds and the
+ * numeric flags; then the thresholds (a double per node, 8-byte aligned), the
+ * node records (as in TreeModel), the distributions (starts, classes, counts),
+ * a flag per attribute split at thresholds, the directory and the dictionaries -
+ * one per input attribute, then the class names, then the attribute names.
+ * A dictionary is its size, its capacity, an open addressing table of codes
+ * keyed by the hash of the UTF-8 bytes, the start of every symbol and the
+ * symbols' bytes.
+ *
+ * @author pandit
+ *
+ * @version 1.0
+ *
+ * Revision Log
+ *
+ * Date       Version        Description
+ ******************************************************************************
+ * 18th Oct    1.0     	First cut at MappedTreeModel
+ *
+ *             1.1     	Threshold nodes for numeric attributes - file version 2
+ *
+ *             1.2     	The header is validated on open; lookups allocate nothing
+ *
+ *             1.3     	A row given only its codes cannot pass a threshold node - predict throws
+ *
+ *             1.4     	The model file is replaced atomically
+ ******************************************************************************
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+public final class MappedTreeModel {
+
+	public static final int UNKNOWN = TreeModel.UNKNOWN;
+
+	private static final int MAGIC = 0x4335544d;
+
+	/*
+	 * Bump whenever the layout changes - open rejects other versions
+	 */
+	private static final int VERSION = 2;
+
+	/*
+	 * In ints - the last one is padding, so that the thresholds start 8-byte aligned
+	 */
+	private static final int HEADER_SIZE = 12;
+
+	private static final Charset UTF8 = Charset.forName ("UTF-8");
+
+	private static final int NODE_SIZE = TreeModel.NODE_SIZE;
+
+	private static final int ATTRIBUTE = TreeModel.ATTRIBUTE;
+
+	private static final int FIRST_CHILD = TreeModel.FIRST_CHILD;
+
+	private static final int NUM_CHILDREN = TreeModel.NUM_CHILDREN;
+
+	private static final int LABEL = TreeModel.LABEL;
+
+	private final ByteBuffer bytes;
+
+	private final IntBuffer ints;
+
+	private final int numAttributes;
+
+	private final int numClasses;
+
+	private final int numNodes;
+
+	/*
+	 * Int offsets of the sections within ints
+	 */
+	private final int nodesBase;
+
+	private final int distributionBase;
+
+	private final int distributionSize;
+
+	private final int directoryBase;
+
+	private final int thresholdsOffset;
+
+	private final int numericBase;
+
+
+	private MappedTreeModel (final ByteBuffer bytes) throws IOException {
+
+		this.bytes = bytes;
+
+		this.ints = bytes.asIntBuffer ();
+
+		if (bytes.capacity () < HEADER_SIZE * 4 || ints.get (0) != MAGIC) {
+
+			throw new IOException ("Not a model file");
+		}
+
+		if (ints.get (1) != VERSION) {
+
+			throw new IOException ("Unsupported model file version " + ints.get (1));
+		}
+
+		numAttributes = ints.get (2);
+
+		numClasses = ints.get (3);
+
+		numNodes = ints.get (4);
+
+		distributionSize = ints.get (5);
+
+		nodesBase = ints.get (6) / 4;
+
+		distributionBase = ints.get (7) / 4;
+
+		directoryBase = ints.get (8) / 4;
+
+		thresholdsOffset = ints.get (9);
+
+		numericBase = ints.get (10) / 4;
+
+		validate ();
+	}
+
+	/**
+	 * Checks the header against the size of the file and the sections against each
+	 * other, so that a truncated or corrupt file is rejected on open instead of failing
+	 * somewhere inside predict. The node records themselves are not walked.
+	 */
+	private void validate () throws IOException {
+
+		long size = bytes.capacity ();
+
+		if (numAttributes < 1 || numClasses < 0 || numNodes < 1 || distributionSize < 0) {
+
+			throw new IOException ("Corrupt model file: " + numAttributes + " attributes, " + numClasses + " classes, "
+					+ numNodes + " nodes, " + distributionSize + " distribution entries");
+		}
+
+		// the sections follow each other in the order write lays them out
+		long nodesOffset = thresholdsOffset + 8L * numNodes;
+
+		long distributionOffset = nodesOffset + 4L * NODE_SIZE * numNodes;
+
+		long numericOffset = distributionOffset + 4L * (numNodes + 1 + 2L * distributionSize);
+
+		long directoryOffset = numericOffset + 4L * numAttributes;
+
+		long dictionariesOffset = directoryOffset + 4L * (numAttributes + 1);
+
+		if (thresholdsOffset != HEADER_SIZE * 4 || ints.get (6) != nodesOffset || ints.get (7) != distributionOffset
+				|| ints.get (10) != numericOffset || ints.get (8) != directoryOffset || dictionariesOffset > size) {
+
+			throw new IOException ("Corrupt model file: the section offsets do not match the header, or the file is truncated");
+		}
+
+		for (int i = 0; i <= numAttributes; i++) {
+
+			long start = ints.get (directoryBase + i);
+
+			long end = i < numAttributes ? ints.get (directoryBase + i + 1) : size;
+
+			if (start < dictionariesOffset || start % 4 != 0 || end < start + 8 || end > size) {
+
+				throw new IOException ("Corrupt model file: dictionary " + i + " lies outside the file");
+			}
+
+			int base = (int) (start / 4);
+
+			int numSymbols = ints.get (base);
+
+			int capacity = ints.get (base + 1);
+
+			if (numSymbols < 0 || capacity < 2 || (capacity & (capacity - 1)) != 0 || capacity < numSymbols
+					|| start + 4L * (2 + capacity + numSymbols + 1) > end) {
+
+				throw new IOException ("Corrupt model file: dictionary " + i + " is malformed or truncated");
+			}
+
+			if (start + 4L * (2 + capacity + numSymbols + 1) + ints.get (base + 2 + capacity + numSymbols) > end) {
+
+				throw new IOException ("Corrupt model file: the symbols of dictionary " + i + " are truncated");
+			}
+		}
+
+		if (ints.get (dictionaryBase (numAttributes - 1)) != numClasses || ints.get (dictionaryBase (numAttributes)) != numAttributes) {
+
+			throw new IOException ("Corrupt model file: the class or attribute names do not match the header");
+		}
+	}
+
+	/**
+	 * Maps a model file
+	 *
+	 * @param fileName - a file written by TreeModel.save
+	 *
+	 * @return the model, backed by the mapping
+	 */
+	public static MappedTreeModel open (final String fileName) throws IOException {
+
+		RandomAccessFile file = new RandomAccessFile (fileName, "r");
+
+		try {
+
+			FileChannel channel = file.getChannel ();
+
+			// the mapping outlives the channel
+			MappedByteBuffer buffer = channel.map (FileChannel.MapMode.READ_ONLY, 0, channel.size ());
+
+			buffer.order (ByteOrder.LITTLE_ENDIAN);
+
+			return new MappedTreeModel (buffer);
+
+		} finally {
+
+			file.close ();
+		}
+	}
+
+	/**
+	 * Writes a model file. The file is written to a temporary file first and
+	 * moved over the old one atomically, so a reader never maps half a model, and 
+	 * the old model is kept if the new one cannot be moved into place.
+	 */
+	static void write (final TreeModel model, final String fileName) throws IOException {
+
+		int numAttributes = model.attributeNames.length;
+
+		int numNodes = model.nodes.length / NODE_SIZE;
+
+		int distributionSize = model.distributionClasses.length;
+
+		byte [][] dictionaries = new byte [numAttributes + 1][];
+
+		for (int i = 0; i < numAttributes - 1; i++) {
+
+			dictionaries[i] = dictionary (model.symbols[i]);
+		}
+
+		dictionaries[numAttributes - 1] = dictionary (model.classNames);
+
+		dictionaries[numAttributes] = dictionary (model.attributeNames);
+
+		int thresholdsOffset = HEADER_SIZE * 4;
+
+		int nodesOffset = thresholdsOffset + numNodes * 8;
+
+		int distributionOffset = nodesOffset + model.nodes.length * 4;
+
+		int numericOffset = distributionOffset + (numNodes + 1 + 2 * distributionSize) * 4;
+
+		int directoryOffset = numericOffset + numAttributes * 4;
+
+		int size = directoryOffset + dictionaries.length * 4;
+
+		for (int i = 0; i < dictionaries.length; i++) {
+
+			size += dictionaries[i].length;
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate (size).order (ByteOrder.LITTLE_ENDIAN);
+
+		buffer.putInt (MAGIC).putInt (VERSION).putInt (numAttributes).putInt (model.classNames.length).putInt (numNodes);
+
+		buffer.putInt (distributionSize).putInt (nodesOffset).putInt (distributionOffset).putInt (directoryOffset);
+
+		buffer.putInt (thresholdsOffset).putInt (numericOffset).putInt (0);
+
+		for (int i = 0; i < numNodes; i++) {
+
+			buffer.putDouble (model.thresholds[i]);
+		}
+
+		buffer.asIntBuffer ().put (model.nodes);
+
+		buffer.position (distributionOffset);
+
+		IntBuffer distributions = buffer.asIntBuffer ();
+
+		distributions.put (model.distributionStarts);
+
+		distributions.put (model.distributionClasses);
+
+		distributions.put (model.distributionCounts);
+
+		buffer.position (numericOffset);
+
+		for (int i = 0; i < numAttributes; i++) {
+
+			buffer.putInt (model.numeric[i] ? 1 : 0);
+		}
+
+		int offset = directoryOffset + dictionaries.length * 4;
+
+		for (int i = 0; i < dictionaries.length; i++) {
+
+			buffer.putInt (offset);
+
+			offset += dictionaries[i].length;
+		}
+
+		for (int i = 0; i < dictionaries.length; i++) {
+
+			buffer.put (dictionaries[i]);
+		}
+
+		buffer.flip ();
+
+		File target = new File (fileName);
+
+		File temp = new File (fileName + ".tmp");
+
+		RandomAccessFile file = new RandomAccessFile (temp, "rw");
+
+		try {
+
+			file.setLength (0);
+
+			FileChannel channel = file.getChannel ();
+
+			while (buffer.hasRemaining ()) {
+
+				channel.write (buffer);
+			}
+
+		} finally {
+
+			file.close ();
+		}
+
+		try {
+
+			// replaces any older model in one step - there is always a whole model, old or new
+			Files.move (temp.toPath (), target.toPath (), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+		} catch (IOException e) {
+
+			temp.delete ();
+
+			throw new IOException ("Unable to write the model file " + fileName, e);
+		}
+	}
+
+	/**
+	 * Lays out a dictionary - see the class comment
+	 */
+	private static byte [] dictionary (final String [] symbols) {
+
+		byte [][] encoded = new byte [symbols.length][];
+
+		int numBytes = 0;
+
+		for (int code = 0; code < symbols.length; code++) {
+
+			encoded[code] = symbols[code].getBytes (UTF8);
+
+			numBytes += encoded[code].length;
+		}
+
+		int capacity = 2;
+
+		while (capacity < 2 * symbols.length) {
+
+			capacity = capacity * 2;
+		}
+
+		int [] slots = new int [capacity];
+
+		Arrays.fill (slots, -1);
+
+		for (int code = 0; code < symbols.length; code++) {
+
+			int slot = hash (encoded[code]) & (capacity - 1);
+
+			while (slots[slot] >= 0) {
+
+				slot = (slot + 1) & (capacity - 1);
+			}
+
+			slots[slot] = code;
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate ((2 + capacity + symbols.length + 1) * 4 + ((numBytes + 3) & ~3)).order (ByteOrder.LITTLE_ENDIAN);
+
+		buffer.putInt (symbols.length).putInt (capacity);
+
+		for (int slot = 0; slot < capacity; slot++) {
+
+			buffer.putInt (slots[slot]);
+		}
+
+		int start = 0;
+
+		for (int code = 0; code < symbols.length; code++) {
+
+			buffer.putInt (start);
+
+			start += encoded[code].length;
+		}
+
+		buffer.putInt (start);
+
+		for (int code = 0; code < symbols.length; code++) {
+
+			buffer.put (encoded[code]);
+		}
+
+		return buffer.array ();
+	}
+
+	private static int hash (final byte [] symbol) {
+
+		int hash = 0;
+
+		for (int i = 0; i < symbol.length; i++) {
+
+			hash = 31 * hash + symbol[i];
+		}
+
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * @return the int offset of dictionary i
+	 */
+	private int dictionaryBase (final int dictionary) {
+
+		return ints.get (directoryBase + dictionary) / 4;
+	}
+
+	/**
+	 * Looks a symbol up in a dictionary, encoding it to UTF-8 a character at a time and
+	 * comparing the encoded bytes in place - nothing is allocated
+	 *
+	 * @return its code, or -1 if it is not in the dictionary
+	 */
+	private int lookup (final int dictionary, final String symbol) {
+
+		int base = dictionaryBase (dictionary);
+
+		int size = ints.get (base);
+
+		int capacity = ints.get (base + 1);
+
+		int startsBase = base + 2 + capacity;
+
+		int symbolsOffset = (startsBase + size + 1) * 4;
+
+		int hash = 0;
+
+		int length = 0;
+
+		for (int i = 0; i < symbol.length (); ) {
+
+			int codePoint = codePoint (symbol, i);
+
+			int numBytes = numBytes (codePoint);
+
+			for (int k = 0; k < numBytes; k++) {
+
+				hash = 31 * hash + utf8Byte (codePoint, numBytes, k);
+			}
+
+			length += numBytes;
+
+			i += Character.charCount (codePoint);
+		}
+
+		int slot = (hash ^ (hash >>> 16)) & (capacity - 1);
+
+		while (true) {
+
+			int code = ints.get (base + 2 + slot);
+
+			if (code < 0) {
+
+				return -1;
+			}
+
+			int start = ints.get (startsBase + code);
+
+			int end = ints.get (startsBase + code + 1);
+
+			if (end - start == length && matches (symbol, symbolsOffset + start)) {
+
+				return code;
+			}
+
+			slot = (slot + 1) & (capacity - 1);
+		}
+	}
+
+	/**
+	 * @return whether the UTF-8 encoding of a symbol is the bytes at an offset of the mapping
+	 */
+	private boolean matches (final String symbol, final int offset) {
+
+		int position = offset;
+
+		for (int i = 0; i < symbol.length (); ) {
+
+			int codePoint = codePoint (symbol, i);
+
+			int numBytes = numBytes (codePoint);
+
+			for (int k = 0; k < numBytes; k++) {
+
+				if (bytes.get (position) != utf8Byte (codePoint, numBytes, k)) {
+
+					return false;
+				}
+
+				position = position + 1;
+			}
+
+			i += Character.charCount (codePoint);
+		}
+
+		return true;
+	}
+
+	/**
+	 * @return the code point at index i, as String.getBytes encodes it - an unpaired surrogate is a '?'
+	 */
+	private static int codePoint (final String symbol, final int i) {
+
+		char c = symbol.charAt (i);
+
+		if (Character.isHighSurrogate (c) && i + 1 < symbol.length () && Character.isLowSurrogate (symbol.charAt (i + 1))) {
+
+			return Character.toCodePoint (c, symbol.charAt (i + 1));
+		}
+
+		return Character.isSurrogate (c) ? '?' : c;
+	}
+
+	/**
+	 * @return the length of the UTF-8 encoding of a code point
+	 */
+	private static int numBytes (final int codePoint) {
+
+		return codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+	}
+
+	/**
+	 * @return byte k of the UTF-8 encoding of a code point
+	 */
+	private static byte utf8Byte (final int codePoint, final int numBytes, final int k) {
+
+		if (numBytes == 1) {
+
+			return (byte) codePoint;
+		}
+
+		int shift = 6 * (numBytes - 1 - k);
+
+		if (k == 0) {
+
+			// 110xxxxx, 1110xxxx or 11110xxx
+			return (byte) (((0xf00 >> numBytes) & 0xff) | (codePoint >> shift));
+		}
+
+		return (byte) (0x80 | ((codePoint >> shift) & 0x3f));
+	}
+
+	/**
+	 * @return the symbol of a dictionary encoded as code
+	 */
+	private String symbol (final int dictionary, final int code) {
+
+		int base = dictionaryBase (dictionary);
+
+		int capacity = ints.get (base + 1);
+
+		int startsBase = base + 2 + capacity;
+
+		int symbolsOffset = (startsBase + ints.get (base) + 1) * 4;
+
+		int start = ints.get (startsBase + code);
+
+		byte [] symbol = new byte [ints.get (startsBase + code + 1) - start];
+
+		for (int i = 0; i < symbol.length; i++) {
+
+			symbol[i] = bytes.get (symbolsOffset + start + i);
+		}
+
+		return new String (symbol, UTF8);
+	}
+
+	/**
+	 * Predicts the class of an encoded row of symbolic attributes - a row given only its
+	 * codes cannot pass a node on a numeric attribute, see predict (int [], double []).
+	 *
+	 * @param row - the code of each attribute's value, as given by encode
+	 *
+	 * @return the index of the predicted class, or UNKNOWN
+	 *
+	 * @throws IllegalStateException if the row reaches a node on a numeric attribute
+	 */
+	public int predict (final int [] row) {
+
+		return ints.get (reach (row, null) + LABEL);
+	}
+
+	/**
+	 * Predicts the class of a row having numeric attributes
+	 *
+	 * @param codes - the code of each symbolic attribute's value, as given by encode
+	 * @param values - the value of each numeric attribute (NaN for a '?')
+	 *
+	 * @return the index of the predicted class, or UNKNOWN
+	 */
+	public int predict (final int [] codes, final double [] values) {
+
+		return ints.get (reach (codes, values) + LABEL);
+	}
+
+	/**
+	 * Predicts the class of a row of symbols
+	 *
+	 * @param values - the value of each input attribute, in names file order; numbers
+	 * 		  are parsed as they are needed, and anything else ('?' say) counts as missing
+	 *
+	 * @return the index of the predicted class, or UNKNOWN
+	 */
+	public int predict (final String [] values) {
+
+		IntBuffer ints = this.ints;
+
+		int base = nodesBase;
+
+		while (true) {
+
+			int attribute = ints.get (base + ATTRIBUTE);
+
+			if (attribute < 0) {
+
+				return ints.get (base + LABEL);
+			}
+
+			int value;
+
+			if (numeric (attribute)) {
+
+				double number;
+
+				try {
+
+					number = Double.parseDouble (values[attribute]);
+
+				} catch (NumberFormatException excp) {
+
+					number = Double.NaN;
+				}
+
+				value = number <= threshold (base) ? 0 : 1;
+
+			} else {
+
+				// only the attributes on the path are looked up
+				value = lookup (attribute, values[attribute]);
+			}
+
+			if (value < 0 || value >= ints.get (base + NUM_CHILDREN)) {
+
+				return ints.get (base + LABEL);
+			}
+
+			base = nodesBase + (ints.get (base + FIRST_CHILD) + value) * NODE_SIZE;
+		}
+	}
+
+	/**
+	 * Predicts the class of one row of a columnar data set, encoded with the
+	 * domains the model was trained with
+	 */
+	public int predict (final Dataset data, final int row) {
+
+		IntBuffer ints = this.ints;
+
+		int base = nodesBase;
+
+		while (true) {
+
+			int attribute = ints.get (base + ATTRIBUTE);
+
+			if (attribute < 0) {
+
+				return ints.get (base + LABEL);
+			}
+
+			int value;
+
+			if (numeric (attribute)) {
+
+				value = data.numericColumns[attribute][row] <= threshold (base) ? 0 : 1;
+
+			} else {
+
+				value = data.columns[attribute][row];
+			}
+
+			if (value < 0 || value >= ints.get (base + NUM_CHILDREN)) {
+
+				return ints.get (base + LABEL);
+			}
+
+			base = nodesBase + (ints.get (base + FIRST_CHILD) + value) * NODE_SIZE;
+		}
+	}
+
+	/**
+	 * Predicts the class of an encoded row, along with the class distribution of the
+	 * training rows that reached the same node
+	 *
+	 * @param counts - receives the number of training rows of class c at counts[c]; must hold numClasses entries
+	 *
+	 * @return the index of the predicted class, or UNKNOWN
+	 *
+	 * @throws IllegalStateException if the row reaches a node on a numeric attribute
+	 */
+	public int predictCounts (final int [] row, final int [] counts) {
+
+		return predictCounts (row, null, counts);
+	}
+
+	/**
+	 * Predicts the class of a row having numeric attributes, along with the class
+	 * distribution of the training rows that reached the same node
+	 */
+	public int predictCounts (final int [] codes, final double [] values, final int [] counts) {
+
+		int base = reach (codes, values);
+
+		Arrays.fill (counts, 0, numClasses, 0);
+
+		int node = (base - nodesBase) / NODE_SIZE;
+
+		int start = ints.get (distributionBase + node);
+
+		int end = ints.get (distributionBase + node + 1);
+
+		int classesBase = distributionBase + numNodes + 1;
+
+		for (int i = start; i < end; i++) {
+
+			counts[ints.get (classesBase + i)] = ints.get (classesBase + distributionSize + i);
+		}
+
+		return ints.get (base + LABEL);
+	}
+
+	/**
+	 * @return the int offset of the node a row ends up at
+	 */
+	private int reach (final int [] codes, final double [] values) {
+
+		IntBuffer ints = this.ints;
+
+		int base = nodesBase;
+
+		while (true) {
+
+			int attribute = ints.get (base + ATTRIBUTE);
+
+			if (attribute < 0) {
+
+				return base;
+			}
+
+			int value;
+
+			if (numeric (attribute)) {
+
+				if (values == null) {
+
+					throw new IllegalStateException ("The tree splits " + attributeName (attribute) + " at a threshold - predict the row with its numeric values");
+				}
+
+				value = values[attribute] <= threshold (base) ? 0 : 1;
+
+			} else {
+
+				value = codes[attribute];
+			}
+
+			if (value < 0 || value >= ints.get (base + NUM_CHILDREN)) {
+
+				return base;
+			}
+
+			base = nodesBase + (ints.get (base + FIRST_CHILD) + value) * NODE_SIZE;
+		}
+	}
+
+	private boolean numeric (final int attribute) {
+
+		return ints.get (numericBase + attribute) != 0;
+	}
+
+	/**
+	 * @return the threshold of the node at an int offset
+	 */
+	private double threshold (final int base) {
+
+		return bytes.getDouble (thresholdsOffset + (base - nodesBase) / NODE_SIZE * 8);
+	}
+
+	/**
+	 * Predicts the class of every row, writing the results into out
+	 *
+	 * @param rows
+	 * @param out - receives the prediction for rows[i] at out[i]; must be at least as long as rows
+	 *
+	 * @throws IllegalStateException if a row reaches a node on a numeric attribute
+	 */
+	public void predictBatch (final int [][] rows, final int [] out) {
+
+		for (int i = 0; i < rows.length; i++) {
+
+			out[i] = predict (rows[i]);
+		}
+	}
+
+	/**
+	 * Predicts the class of every row of a columnar data set
+	 *
+	 * @param data
+	 * @param out - receives the prediction for row i at out[i]; must hold at least data.numRows entries
+	 */
+	public void predictBatch (final Dataset data, final int [] out) {
+
+		for (int i = 0; i < data.numRows; i++) {
+
+			out[i] = predict (data, i);
+		}
+	}
+
+	/**
+	 * Encodes the value of an input attribute
+	 *
+	 * @return the code of the value, or -1 if it was not seen in training (predict then stops at the node testing it)
+	 */
+	public int encode (final int attribute, final String value) {
+
+		return lookup (attribute, value);
+	}
+
+	/**
+	 * @return the index of an attribute, by name, or -1
+	 */
+	public int attributeIndex (final String name) {
+
+		return lookup (numAttributes, name);
+	}
+
+	public String attributeName (final int attribute) {
+
+		return symbol (numAttributes, attribute);
+	}
+
+	/**
+	 * @return the name of a class index returned by predict
+	 */
+	public String className (final int label) {
+
+		return symbol (numAttributes - 1, label);
+	}
+
+	/**
+	 * @return the number of attributes, the class attribute included
+	 */
+	public int numAttributes () {
+
+		return numAttributes;
+	}
+
+	public int numClasses () {
+
+		return numClasses;
+	}
+
+	public int numNodes () {
+
+		return numNodes;
+	}
+}
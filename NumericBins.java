@@ -0,0 +1,242 @@
+/**
+ * <code>NumericBins</code> quantizes a numeric column into at most MAX_BINS
+ * bins of about the same number of rows, and holds the bin of every row as a
+ * byte code. The bin bounds are quantiles of a fixed-size random sample of the
+ * column, so the cost of finding them does not grow with the number of rows.
+ * A '?' (NaN) gets a code of its own, after the last bin.
+ *
+ * Bin b holds the values v with upper[b - 1] < v <= upper[b], so cutting after
+ * bin b is the same as the threshold split v <= upper[b].
+ *
+ * @author pandit
+ *
+ * @version 1.0
+ *
+ * Revision Log
+ *
+ * Date       Version        Description
+ ******************************************************************************
+ * 18th Oct    1.0     	First cut at NumericBins
+ *
+ *             1.1     	The bounds can be gathered from a stream of values
+ *
+ *             1.2     	The bounds can be gathered from some of the rows only - the training ones
+ ******************************************************************************
+ */
+
+import java.util.Arrays;
+import java.util.Random;
+
+class NumericBins {
+
+	/*
+	 * The most bins a column can have - together with the code for '?' the codes fill a byte
+	 */
+	public static final int MAX_BINS = 255;
+
+	/*
+	 * The number of values the bin bounds are computed from
+	 */
+	public static final int SAMPLE_SIZE = 1 << 16;
+
+	public int numBins;
+
+	/*
+	 * The largest value of each bin - the last one is the largest value of the column
+	 */
+	public double [] upper;
+
+	/*
+	 * The bin of every row - read as (codes[row] & 0xff); numBins for a '?'. Only kept
+	 * for a column quantized in memory; a DiskDataset's values are coded as they are read
+	 */
+	public byte [] codes;
+
+
+	/*
+	 * While the bounds are being gathered: a reservoir sample of the numbers seen so far
+	 */
+	private double [] sample;
+
+	private int numSampled;
+
+	private int numSeen;
+
+	private double max = Double.NEGATIVE_INFINITY;
+
+	private Random random;
+
+
+	/**
+	 * Starts gathering the bounds of a column whose values are passed to add one at a time
+	 *
+	 * @param sampleSize - the size of the sample to keep; at most SAMPLE_SIZE is useful
+	 */
+	public NumericBins (final int sampleSize) {
+
+		sample = new double [Math.min (sampleSize, SAMPLE_SIZE)];
+
+		// seeded, so that runs repeat
+		random = new Random (SAMPLE_SIZE);
+	}
+
+	/**
+	 * Quantizes the first numRows values of a column
+	 *
+	 * @param column
+	 * @param numRows
+	 * @param maxBins - at most MAX_BINS
+	 *
+	 * @return the bins, with the code of every row
+	 */
+	public static NumericBins quantize (final double [] column, final int numRows, final int maxBins) {
+
+		return quantize (column, numRows, null, maxBins);
+	}
+
+	/**
+	 * Quantizes the first numRows values of a column, into bins gathered from some of them
+	 *
+	 * @param column
+	 * @param numRows
+	 * @param rows - the rows to gather the bounds from, in increasing order; null for all of them
+	 * @param maxBins - at most MAX_BINS
+	 *
+	 * @return the bins, with the code of every row
+	 */
+	public static NumericBins quantize (final double [] column, final int numRows, final int [] rows, final int maxBins) {
+
+		NumericBins bins = new NumericBins (rows != null ? rows.length : numRows);
+
+		for (int i = 0; rows != null && i < rows.length; i++) {
+
+			bins.add (column[rows[i]]);
+		}
+
+		for (int row = 0; rows == null && row < numRows; row++) {
+
+			bins.add (column[row]);
+		}
+
+		bins.computeBounds (maxBins);
+
+		bins.codes = new byte [numRows];
+
+		for (int row = 0; row < numRows; row++) {
+
+			bins.codes[row] = (byte) bins.code (column[row]);
+		}
+
+		return bins;
+	}
+
+	/**
+	 * Adds the next value of the column to the sample
+	 */
+	public void add (final double value) {
+
+		if (Double.isNaN (value)) {
+
+			return;
+		}
+
+		if (value > max) {
+
+			max = value;
+		}
+
+		if (numSampled < sample.length) {
+
+			sample[numSampled] = value;
+
+			numSampled = numSampled + 1;
+
+		} else {
+
+			int slot = random.nextInt (numSeen + 1);
+
+			if (slot < sample.length) {
+
+				sample[slot] = value;
+			}
+		}
+
+		numSeen = numSeen + 1;
+	}
+
+	/**
+	 * Sets the bin bounds from the values added so far, and lets go of the sample
+	 *
+	 * @param maxBins - at most MAX_BINS
+	 */
+	public void computeBounds (final int maxBins) {
+
+		Arrays.sort (sample, 0, numSampled);
+
+		upper = new double [Math.max (1, maxBins)];
+
+		numBins = 0;
+
+		// the b-th quantile closes bin b; quantiles that coincide (common values) share a bin
+		for (int b = 0; b < maxBins - 1 && numSampled > 0; b++) {
+
+			int index = (int) ((long) (b + 1) * numSampled / maxBins) - 1;
+
+			if (index < 0) {
+
+				continue;
+			}
+
+			double bound = sample[index];
+
+			if (bound < max && (numBins == 0 || bound > upper[numBins - 1])) {
+
+				upper[numBins] = bound;
+
+				numBins = numBins + 1;
+			}
+		}
+
+		upper[numBins] = numSeen > 0 ? max : 0;
+
+		numBins = numBins + 1;
+
+		upper = Arrays.copyOf (upper, numBins);
+
+		sample = null;
+
+		random = null;
+	}
+
+	/**
+	 * @return the bin of a value - numBins for a '?', the last bin for a value above the column's
+	 */
+	public int code (final double value) {
+
+		if (Double.isNaN (value)) {
+
+			return numBins;
+		}
+
+		int low = 0;
+
+		int high = numBins - 1;
+
+		// the first bin whose upper bound is >= value
+		while (low < high) {
+
+			int middle = (low + high) >>> 1;
+
+			if (upper[middle] < value) {
+
+				low = middle + 1;
+
+			} else {
+
+				high = middle;
+			}
+		}
+
+		return low;
+	}
+}
@@ -0,0 +1,129 @@
+/**
+ * <code>NumericColumns</code> holds a chunk of a linear / nominal data file parsed
+ * into memory, one double column per input attribute, while the other chunks are
+ * parsed (see ChunkParser) - and the whole file, as a DatasetCache holds it. A file
+ * read serially is parsed straight into its Dataset instead.
+ *
+ * @author pandit
+ *
+ * @version 1.0
+ *
+ * Revision Log
+ *
+ * Date       Version        Description
+ ******************************************************************************
+ * 18th Oct    1.0     	First cut at NumericColumns
+ *
+ *             1.1     	Implements RowSink
+ *
+ *             1.2     	No longer gathers the min / max of every attribute
+ *
+ *             1.3     	Only the per-chunk buffer - whole files are parsed into a Dataset
+ ******************************************************************************
+ */
+
+import java.util.Arrays;
+
+class NumericColumns implements RowSink {
+
+	private static final int INITIAL_CAPACITY = 1024;
+
+	/*
+	 * The number of input attributes - the class attribute is held in classes
+	 */
+	public int numInputs;
+
+	public int numRows;
+
+	/*
+	 * values[attribute][row] - NaN where the file had a '?'
+	 */
+	public double [][] values;
+
+	/*
+	 * The encoded class of every row
+	 */
+	public int [] classes;
+
+	public int [] ids;
+
+	public String [] labels;
+
+
+	public NumericColumns (final int numInputs, final boolean hasLabels) {
+
+		this.numInputs = numInputs;
+
+		values = new double [numInputs][INITIAL_CAPACITY];
+
+		classes = new int [INITIAL_CAPACITY];
+
+		ids = new int [INITIAL_CAPACITY];
+
+		if (hasLabels) {
+
+			labels = new String [INITIAL_CAPACITY];
+		}
+	}
+
+	/**
+	 * Appends a row
+	 *
+	 * @param row - the value of each input attribute; copied, so the caller can re-use it
+	 * @param cls - the encoded class
+	 * @param id - the example number of the row in its source file
+	 * @param label - the explicit label of the row, or null
+	 */
+	public void addRow (final double [] row, final int cls, final int id, final String label) {
+
+		if (numRows == ids.length) {
+
+			grow ();
+		}
+
+		for (int i = 0; i < numInputs; i++) {
+
+			values[i][numRows] = row[i];
+		}
+
+		classes[numRows] = cls;
+
+		ids[numRows] = id;
+
+		if (labels != null) {
+
+			labels[numRows] = label;
+		}
+
+		numRows = numRows + 1;
+	}
+
+	/**
+	 * Appends a row handed over as a RowSink - the class is the last of the values
+	 */
+	public int addRow (final int [] values, final double [] numericValues, final int id, final String label) {
+
+		addRow (numericValues, values[numInputs], id, label);
+
+		return numRows - 1;
+	}
+
+	private void grow () {
+
+		int capacity = ids.length * 2;
+
+		for (int i = 0; i < numInputs; i++) {
+
+			values[i] = Arrays.copyOf (values[i], capacity);
+		}
+
+		classes = Arrays.copyOf (classes, capacity);
+
+		ids = Arrays.copyOf (ids, capacity);
+
+		if (labels != null) {
+
+			labels = Arrays.copyOf (labels, capacity);
+		}
+	}
+}
@@ -0,0 +1,257 @@
+/**
+ * <code>RandomForest</code> trains a bagged ensemble of decision trees: every tree
+ * is induced by the DecisionTree split logic over a bootstrap sample of the
+ * training rows, choosing each split from a random subset of the attributes, and
+ * the forest predicts the class most of its trees vote for.
+ *
+ * The trees are induced in parallel over the one encoded training set loaded by
+ * the InputProcessor - a tree only holds its sample, as row indices, and its own
+ * scratch arrays. Every tree draws from a generator seeded by mixing the seed of
+ * the forest and its number (see DataSplit.mix), so a forest repeats whatever the
+ * parallelism, and neither the trees of a forest nor the forests of nearby seeds
+ * share their streams.
+ *
+ * @author pandit
+ *
+ * @version 1.0
+ *
+ * Revision Log
+ *
+ * Date       Version        Description
+ ******************************************************************************
+ * 18th Oct    1.0     	First cut at RandomForest
+ *
+ *             1.1     	Trains on, and tests, the rows of the DecisionTree's DataSplit
+ *
+ *             1.2     	Tree seeds are mixed, not consecutive; predict takes the buffer
+ *                      of votes from the caller
+ ******************************************************************************
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+public class RandomForest {
+
+	/*
+	 * The loaded data set and the training settings shared by the trees
+	 */
+	private DecisionTree data;
+
+	private int numTrees;
+
+	/*
+	 * The number of attributes each split is chosen from - 0 for the square root of the
+	 * number of input attributes
+	 */
+	private int featureSubset;
+
+	private long seed;
+
+	private int parallelism;
+
+	private TreeModel [] trees;
+
+	private int numClasses;
+
+
+	/**
+	 * @param data - a tree whose data set is loaded (see DecisionTree.load), in memory
+	 * @param numTrees
+	 * @param featureSubset - the number of attributes each split is chosen from, 0 for
+	 * 		  the square root of the number of input attributes
+	 * @param seed
+	 */
+	public RandomForest (final DecisionTree data, final int numTrees, final int featureSubset, final long seed) {
+
+		if (data.getOutOfCoreDirectory () != null) {
+
+			throw new IllegalStateException ("A random forest is trained in memory only");
+		}
+
+		if (numTrees < 1) {
+
+			throw new IllegalArgumentException ("numTrees must be at least 1, was " + numTrees);
+		}
+
+		if (featureSubset < 0) {
+
+			throw new IllegalArgumentException ("featureSubset cannot be negative, was " + featureSubset);
+		}
+
+		this.data = data;
+
+		this.numTrees = numTrees;
+
+		int numInputs = data.getNumAttributes () - 1;
+
+		this.featureSubset = featureSubset > 0 ? Math.min (featureSubset, numInputs) : Math.max (1, (int) Math.round (Math.sqrt (numInputs)));
+
+		this.seed = seed;
+
+		this.parallelism = data.getParallelism ();
+
+		this.numClasses = data.getDomains ()[numInputs].size ();
+	}
+
+	/**
+	 * Induces the trees of the forest
+	 */
+	public void train () throws Exception {
+
+		if (data.getHistogramBins () > 0) {
+
+			// the bins of the training columns are computed once, for all the trees
+			data.quantizeColumns ();
+		}
+
+		trees = new TreeModel [numTrees];
+
+		List<ForestTask> tasks = new ArrayList<ForestTask> ();
+
+		for (int t = 0; t < numTrees; t++) {
+
+			tasks.add (new ForestTask (this, t));
+		}
+
+		ForkJoinPool pool = new ForkJoinPool (Math.max (1, parallelism));
+
+		List<Future<Object>> futures = pool.invokeAll (tasks);
+
+		pool.shutdown ();
+
+		for (int t = 0; t < numTrees; t++) {
+
+			// re-throws whatever went wrong in the tree
+			futures.get (t).get ();
+		}
+	}
+
+	/**
+	 * Induces tree t over its bootstrap sample of the training rows - called by the ForestTasks
+	 */
+	void trainTree (final int t) {
+
+		// the seed is mixed before the tree's number is added, so seeds s and s + 1 are far apart
+		Random random = new Random (DataSplit.mix (DataSplit.mix (seed) + (t + 1) * DataSplit.GOLDEN_GAMMA));
+
+		int [] trainingRows = data.getTrainingRows ();
+
+		int [] rows = new int [trainingRows.length];
+
+		for (int i = 0; i < rows.length; i++) {
+
+			rows[i] = trainingRows[random.nextInt (rows.length)];
+		}
+
+		trees[t] = new DecisionTree (data).induceSample (rows, random, featureSubset);
+	}
+
+	/**
+	 * @param votes - scratch space for the votes of the row; numClasses long
+	 * 
+	 * @return the class most trees vote for (the lowest index on a tie), or TreeModel.UNKNOWN
+	 * 		   if no tree could classify the row
+	 */
+	public int predict (final Dataset data, final int row, final int [] votes) {
+
+		Arrays.fill (votes, 0);
+
+		boolean voted = false;
+
+		for (int t = 0; t < trees.length; t++) {
+
+			int label = trees[t].predict (data, row);
+
+			if (label >= 0) {
+
+				votes[label] = votes[label] + 1;
+
+				voted = true;
+			}
+		}
+
+		return voted ? DecisionTree.majority (votes) : TreeModel.UNKNOWN;
+	}
+
+	/**
+	 * Predicts the class of every row of a columnar data set, a tree at a time
+	 *
+	 * @param data
+	 * @param out - receives the prediction for row i at out[i]; must hold at least data.numRows entries
+	 */
+	public void predictBatch (final Dataset data, final int [] out) {
+
+		int [] votes = new int [data.numRows * numClasses];
+
+		for (int t = 0; t < trees.length; t++) {
+
+			trees[t].predictBatch (data, out);
+
+			for (int row = 0; row < data.numRows; row++) {
+
+				if (out[row] >= 0) {
+
+					votes[row * numClasses + out[row]]++;
+				}
+			}
+		}
+
+		for (int row = 0; row < data.numRows; row++) {
+
+			int best = TreeModel.UNKNOWN;
+
+			for (int c = 0; c < numClasses; c++) {
+
+				int count = votes[row * numClasses + c];
+
+				if (count > 0 && (best < 0 || count > votes[row * numClasses + best])) {
+
+					best = c;
+				}
+			}
+
+			out[row] = best;
+		}
+	}
+
+	/**
+	 * Classifies rows of the testing set and displays the overall results, as DecisionTree does
+	 */
+	public void test (final Dataset testingSet, final int [] rows) {
+
+		int [] predicted = new int [rows.length];
+
+		int [] votes = new int [numClasses];
+
+		for (int i = 0; i < rows.length; i++) {
+
+			predicted[i] = predict (testingSet, rows[i], votes);
+		}
+
+		System.out.println ("\n*****************************************************");
+
+		System.out.println ("\nClassifying Test Data Set with " + trees.length + " trees");
+
+		DecisionTree.displayResults (testingSet, rows, predicted);
+	}
+
+	public TreeModel [] getTrees () {
+
+		return this.trees;
+	}
+
+	public int getFeatureSubset () {
+
+		return this.featureSubset;
+	}
+
+	public void setParallelism (final int parallelism) {
+
+		this.parallelism = parallelism;
+	}
+}
@@ -0,0 +1,34 @@
+/**
+ * <code>RowSink</code> is anything the parsed rows of a data file can be
+ * appended to - an in-memory Dataset or NumericColumns, or a DiskDataset
+ * for out-of-core training.
+ *
+ * @author pandit
+ *
+ * @version 1.0
+ *
+ * Revision Log
+ *
+ * Date       Version        Description
+ ******************************************************************************
+ * 18th Oct    1.0     	First cut at RowSink
+ ******************************************************************************
+ */
+
+import java.io.IOException;
+
+interface RowSink {
+
+	/**
+	 * Appends a row. The passed values are copied, so the caller can re-use
+	 * the arrays for the next row.
+	 *
+	 * @param values - the encoded value of each symbolic attribute (the class included)
+	 * @param numericValues - the value of each numeric attribute, or null if there are none
+	 * @param id - the example number of the row in its source file
+	 * @param label - the explicit label of the row, or null
+	 *
+	 * @return the index of the added row
+	 */
+	public int addRow (int [] values, double [] numericValues, int id, String label) throws IOException;
+}
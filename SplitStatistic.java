@@ -0,0 +1,56 @@
+/**
+ * <code>SplitStatistic</code> is what the histogram split search of DecisionTree
+ * sums up in every cell of a histogram, and how it scores a group of rows from
+ * those sums - the class counts of the rows for a decision tree (ClassCounts), or
+ * their gradient and hessian sums and their number for the trees of a gradient-
+ * boosted ensemble (GradientStatistic).
+ *
+ * A cell is cellSize consecutive doubles of a histogram. The score of a group of
+ * rows is additive over the groups a split makes, so a split is worth the scores
+ * of its children added up less the score of its parent - the higher, the better.
+ *
+ * @author pandit
+ *
+ * @version 1.0
+ *
+ * Revision Log
+ *
+ * Date       Version        Description
+ ******************************************************************************
+ * 18th Oct    1.0     	First cut at SplitStatistic
+ ******************************************************************************
+ */
+
+interface SplitStatistic {
+
+	/**
+	 * @return the number of doubles in a cell
+	 */
+	public int cellSize ();
+
+	/**
+	 * Adds rows[start] .. rows[end - 1] into the cells of a numeric attribute - row r into
+	 * the cell at offset + codes[r] * cellSize
+	 *
+	 * @param codes - the bin of every row (see NumericBins)
+	 */
+	public void add (double [] histogram, int offset, byte [] codes, int [] rows, int start, int end);
+
+	/**
+	 * Adds rows[start] .. rows[end - 1] into the cells of a symbolic attribute - row r into
+	 * the cell at offset + column[r] * cellSize
+	 *
+	 * @param column - the encoded value of every row
+	 */
+	public void add (double [] histogram, int offset, int [] column, int [] rows, int start, int end);
+
+	/**
+	 * @return the number of rows summed up in the cell at sums[cell]
+	 */
+	public int count (double [] sums, int cell);
+
+	/**
+	 * @return the score of the group of rows summed up in the cell at sums[cell]
+	 */
+	public double score (double [] sums, int cell);
+}
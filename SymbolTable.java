@@ -0,0 +1,222 @@
+/**
+ * <code>SymbolTable</code> provides the domain of an attribute: the symbols
+ * met so far and the index (code) each one is encoded as. Lookups are O(1)
+ * both ways - symbol to code through a hash map, code to symbol through an
+ * array. Symbols read through a MappedCsvReader are also looked up by their
+ * raw bytes, so a symbol seen before is encoded without creating a String
+ * for the cell.
+ *
+ * @author pandit
+ *
+ * @version 1.0
+ *
+ * Revision Log
+ *
+ * Date       Version        Description
+ ******************************************************************************
+ * 18th Oct    1.0     	First cut at SymbolCache - byte-keyed cache in front of
+ * 						the Vector domains
+ *
+ *             1.1     	Became SymbolTable, replacing the Vector domains
+ ******************************************************************************
+ */
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+class SymbolTable {
+
+	private String [] symbols = new String [8];
+
+	private int numSymbols;
+
+	private HashMap<String, Integer> codes = new HashMap<String, Integer> ();
+
+	/*
+	 * Byte-keyed open addressing table - slots[i] holds an entry number + 1, 0 marks 
+	 * a free slot. Entry e stands for the bytes keys[keyOffsets[e]] .. keys[keyOffsets[e + 1] - 1]
+	 * and is encoded as entryCodes[e].
+	 */
+	private int [] slots = new int [16];
+
+	private int [] hashes = new int [8];
+
+	private int [] entryCodes = new int [8];
+
+	private int [] keyOffsets = new int [9];
+
+	private byte [] keys = new byte [64];
+
+	private int numEntries;
+
+
+	public int size () {
+
+		return numSymbols;
+	}
+
+	/**
+	 * @return the symbol encoded as code
+	 */
+	public String symbol (final int code) {
+
+		return symbols[code];
+	}
+
+	/**
+	 * @return the code of the symbol, or -1 if it is not part of the domain
+	 */
+	public int indexOf (final String symbol) {
+
+		Integer code = codes.get (symbol);
+
+		if (code == null) {
+
+			return -1;
+		}
+
+		return code.intValue ();
+	}
+
+	/**
+	 * @return the code of the symbol, adding it to the end of the domain if it is new
+	 */
+	public int intern (final String symbol) {
+
+		Integer code = codes.get (symbol);
+
+		if (code != null) {
+
+			return code.intValue ();
+		}
+
+		if (numSymbols == symbols.length) {
+
+			symbols = Arrays.copyOf (symbols, numSymbols * 2);
+		}
+
+		symbols[numSymbols] = symbol;
+
+		codes.put (symbol, Integer.valueOf (numSymbols));
+
+		numSymbols = numSymbols + 1;
+
+		return numSymbols - 1;
+	}
+
+	/**
+	 * Encodes a field of the current record of the reader, creating a String
+	 * for the symbol only the first time its bytes are met
+	 *
+	 * @return the code of the symbol, adding it to the end of the domain if it is new
+	 */
+	public int intern (final MappedCsvReader reader, final int field) {
+
+		int hash = reader.hashField (field);
+
+		int mask = slots.length - 1;
+
+		for (int slot = hash & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+
+			int entry = slots[slot] - 1;
+
+			if (hashes[entry] == hash && matches (reader, field, entry)) {
+
+				return entryCodes[entry];
+			}
+		}
+
+		int code = intern (reader.field (field));
+
+		put (reader, field, hash, code);
+
+		return code;
+	}
+
+	private void put (final MappedCsvReader reader, final int field, final int hash, final int code) {
+
+		if ((numEntries + 1) * 2 > slots.length) {
+
+			rehash ();
+		}
+
+		if (numEntries == entryCodes.length) {
+
+			hashes = Arrays.copyOf (hashes, numEntries * 2);
+
+			entryCodes = Arrays.copyOf (entryCodes, numEntries * 2);
+
+			keyOffsets = Arrays.copyOf (keyOffsets, numEntries * 2 + 1);
+		}
+
+		int length = reader.fieldLength (field);
+
+		int offset = keyOffsets[numEntries];
+
+		while (offset + length > keys.length) {
+
+			keys = Arrays.copyOf (keys, keys.length * 2);
+		}
+
+		for (int i = 0; i < length; i++) {
+
+			keys[offset + i] = reader.fieldByte (field, i);
+		}
+
+		keyOffsets[numEntries + 1] = offset + length;
+
+		hashes[numEntries] = hash;
+
+		entryCodes[numEntries] = code;
+
+		insert (numEntries);
+
+		numEntries = numEntries + 1;
+	}
+
+	private boolean matches (final MappedCsvReader reader, final int field, final int entry) {
+
+		int offset = keyOffsets[entry];
+
+		int length = keyOffsets[entry + 1] - offset;
+
+		if (length != reader.fieldLength (field)) {
+
+			return false;
+		}
+
+		for (int i = 0; i < length; i++) {
+
+			if (keys[offset + i] != reader.fieldByte (field, i)) {
+
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private void insert (final int entry) {
+
+		int mask = slots.length - 1;
+
+		int slot = hashes[entry] & mask;
+
+		while (slots[slot] != 0) {
+
+			slot = (slot + 1) & mask;
+		}
+
+		slots[slot] = entry + 1;
+	}
+
+	private void rehash () {
+
+		slots = new int [slots.length * 2];
+
+		for (int entry = 0; entry < numEntries; entry++) {
+
+			insert (entry);
+		}
+	}
+}
@@ -0,0 +1,496 @@
+/**
+ * <code>TreeModel</code> is the read-only, prediction-side view of a trained
+ * decision tree. It is compiled once from the induced TreeNode structure into
+ * a flat array of primitive node records and is never modified afterwards, so
+ * a single instance can be shared by any number of threads. Prediction walks
+ * the array in a tight loop, and neither allocates nor prints - evaluation and
+ * its bookkeeping stay in DecisionTree.categorize.
+ *
+ * @author pandit
+ *
+ * @version 1.0
+ *
+ * Revision Log
+ *
+ * Date       Version        Description
+ ******************************************************************************
+ * 18th Oct    1.0     	First cut at TreeModel
+ *
+ *             1.1     	Values unseen in training fall back to the node's majority class
+ *
+ *             1.2     	Tree compiled into one flat array of nodes for inference
+ *
+ *             1.3     	Domains are SymbolTables
+ *
+ *             1.4     	Carries the attribute names, domains and class distributions,
+ * 						and can be saved as a MappedTreeModel file
+ *
+ *             1.5     	Threshold nodes for numeric attributes
+ *
+ *             1.6     	A row given only its codes cannot pass a threshold node - predict throws
+ ******************************************************************************
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public final class TreeModel {
+
+	/*
+	 * Returned by predict when the tree was trained on no rows at all
+	 */
+	public static final int UNKNOWN = -1;
+
+	/*
+	 * Each node is a record of NODE_SIZE ints in the nodes array: the attribute
+	 * it decomposes on (-1 for a leaf), the index of its first child, the number
+	 * of children, and its majority class. The children of a node are numbered
+	 * consecutively (breadth-first), so the child for value v is firstChild + v.
+	 * The majority class is predicted at a leaf, or at an inner node when the 
+	 * row carries a value not seen during training. A node on a numeric attribute
+	 * has two children: the first for values <= its threshold, the second for the
+	 * larger values and for '?' (NaN).
+	 */
+	static final int NODE_SIZE = 4;
+
+	static final int ATTRIBUTE = 0;
+
+	static final int FIRST_CHILD = 1;
+
+	static final int NUM_CHILDREN = 2;
+
+	static final int LABEL = 3;
+
+	final int [] nodes;
+
+	final String [] classNames;
+
+	final String [] attributeNames;
+
+	/*
+	 * symbols[attribute][code] - the domain of every input attribute
+	 */
+	final String [][] symbols;
+
+	/*
+	 * The class distribution of the training rows that reached node n is held in
+	 * distributionClasses / distributionCounts, from distributionStarts[n] up to
+	 * distributionStarts[n + 1] - 1, in class order
+	 */
+	final int [] distributionStarts;
+
+	final int [] distributionClasses;
+
+	final int [] distributionCounts;
+
+	/*
+	 * The threshold of every node on a numeric attribute, by node index - NaN for the other nodes
+	 */
+	final double [] thresholds;
+
+	/*
+	 * Flags the attributes the tree splits at thresholds
+	 */
+	final boolean [] numeric;
+
+
+	TreeModel (final int [] nodes, final double [] thresholds, final String [] classNames, final String [] attributeNames, final String [][] symbols,
+			final int [] distributionStarts, final int [] distributionClasses, final int [] distributionCounts) {
+
+		this.nodes = nodes;
+
+		this.thresholds = thresholds;
+
+		this.numeric = new boolean [attributeNames.length];
+
+		for (int i = 0; i < thresholds.length; i++) {
+
+			if (Double.isNaN (thresholds[i]) == false) {
+
+				numeric[nodes[i * NODE_SIZE + ATTRIBUTE]] = true;
+			}
+		}
+
+		this.classNames = classNames;
+
+		this.attributeNames = attributeNames;
+
+		this.symbols = symbols;
+
+		this.distributionStarts = distributionStarts;
+
+		this.distributionClasses = distributionClasses;
+
+		this.distributionCounts = distributionCounts;
+	}
+
+	/**
+	 * Compiles an induced tree into its flat form
+	 *
+	 * @param trainingRoot - the root of the induced tree
+	 * @param attributeNames - the names of the attributes, the class attribute last
+	 * @param domains - the attribute domains the tree was induced with
+	 *
+	 * @return the model
+	 */
+	public static TreeModel compile (final TreeNode trainingRoot, final String [] attributeNames, final SymbolTable [] domains) {
+
+		int outputattr = domains.length - 1;
+
+		String [] classNames = new String [domains[outputattr].size ()];
+
+		for (int i = 0; i < classNames.length; i++) {
+
+			classNames[i] = domains[outputattr].symbol (i);
+		}
+
+		String [][] symbols = new String [outputattr][];
+
+		for (int i = 0; i < outputattr; i++) {
+
+			symbols[i] = new String [domains[i].size ()];
+
+			for (int code = 0; code < symbols[i].length; code++) {
+
+				symbols[i][code] = domains[i].symbol (code);
+			}
+		}
+
+		// number the nodes breadth-first, so that siblings end up next to each other
+		ArrayList<TreeNode> order = new ArrayList<TreeNode> ();
+
+		order.add (trainingRoot);
+
+		for (int i = 0; i < order.size (); i++) {
+
+			TreeNode node = order.get (i);
+
+			if (node.children != null) {
+
+				for (int j = 0; j < node.children.length; j++) {
+
+					order.add (node.children[j]);
+				}
+			}
+		}
+
+		int [] nodes = new int [order.size () * NODE_SIZE];
+
+		double [] thresholds = new double [order.size ()];
+
+		int next = 1;
+
+		for (int i = 0; i < order.size (); i++) {
+
+			TreeNode node = order.get (i);
+
+			int base = i * NODE_SIZE;
+
+			nodes[base + LABEL] = node.label;
+
+			thresholds[i] = node.children == null ? Double.NaN : node.threshold;
+
+			if (node.children == null) {
+
+				nodes[base + ATTRIBUTE] = -1;
+
+				continue;
+			}
+
+			nodes[base + ATTRIBUTE] = node.decompositionAttribute;
+
+			nodes[base + FIRST_CHILD] = next;
+
+			nodes[base + NUM_CHILDREN] = node.children.length;
+
+			next = next + node.children.length;
+		}
+
+		// only the leaves keep their distribution - an inner node's is the sum of its
+		// children's, so it is built bottom-up, in reverse breadth-first order
+		int [][] nodeClasses = new int [order.size ()][];
+
+		int [][] nodeCounts = new int [order.size ()][];
+
+		int [] counts = new int [classNames.length];
+
+		int total = 0;
+
+		for (int i = order.size () - 1; i >= 0; i--) {
+
+			TreeNode node = order.get (i);
+
+			if (node.children == null) {
+
+				nodeClasses[i] = node.leafClasses == null ? new int [0] : node.leafClasses;
+
+				nodeCounts[i] = node.leafCounts == null ? new int [0] : node.leafCounts;
+
+			} else {
+
+				int first = nodes[i * NODE_SIZE + FIRST_CHILD];
+
+				for (int j = first; j < first + node.children.length; j++) {
+
+					for (int k = 0; k < nodeClasses[j].length; k++) {
+
+						counts[nodeClasses[j][k]] += nodeCounts[j][k];
+					}
+				}
+
+				int numpresent = 0;
+
+				for (int c = 0; c < counts.length; c++) {
+
+					if (counts[c] > 0) {
+
+						numpresent = numpresent + 1;
+					}
+				}
+
+				nodeClasses[i] = new int [numpresent];
+
+				nodeCounts[i] = new int [numpresent];
+
+				int index = 0;
+
+				for (int c = 0; c < counts.length; c++) {
+
+					if (counts[c] > 0) {
+
+						nodeClasses[i][index] = c;
+
+						nodeCounts[i][index] = counts[c];
+
+						index = index + 1;
+
+						counts[c] = 0;
+					}
+				}
+			}
+
+			total += nodeClasses[i].length;
+		}
+
+		int [] distributionStarts = new int [order.size () + 1];
+
+		int [] distributionClasses = new int [total];
+
+		int [] distributionCounts = new int [total];
+
+		for (int i = 0; i < order.size (); i++) {
+
+			int start = distributionStarts[i];
+
+			System.arraycopy (nodeClasses[i], 0, distributionClasses, start, nodeClasses[i].length);
+
+			System.arraycopy (nodeCounts[i], 0, distributionCounts, start, nodeCounts[i].length);
+
+			distributionStarts[i + 1] = start + nodeClasses[i].length;
+		}
+
+		return new TreeModel (nodes, thresholds, classNames, attributeNames.clone (), symbols, distributionStarts, distributionClasses, distributionCounts);
+	}
+
+	/**
+	 * Predicts the class of an encoded row of symbolic attributes - a row given only its
+	 * codes cannot pass a node on a numeric attribute, see predict (int [], double []).
+	 *
+	 * @param row - the domain index of each attribute's value, as produced by the InputProcessor
+	 *
+	 * @return the index of the predicted class, or UNKNOWN
+	 *
+	 * @throws IllegalStateException if the row reaches a node on a numeric attribute
+	 */
+	public int predict (final int [] row) {
+
+		return nodes[reach (row, null) + LABEL];
+	}
+
+	/**
+	 * Predicts the class of a row having numeric attributes
+	 *
+	 * @param codes - the domain index of each symbolic attribute's value
+	 * @param values - the value of each numeric attribute (NaN for a '?')
+	 *
+	 * @return the index of the predicted class, or UNKNOWN
+	 */
+	public int predict (final int [] codes, final double [] values) {
+
+		return nodes[reach (codes, values) + LABEL];
+	}
+
+	/**
+	 * Predicts the class of one row of a columnar data set
+	 */
+	public int predict (final Dataset data, final int row) {
+
+		int [] nodes = this.nodes;
+
+		int base = 0;
+
+		while (true) {
+
+			int attribute = nodes[base + ATTRIBUTE];
+
+			if (attribute < 0) {
+
+				return nodes[base + LABEL];
+			}
+
+			int value;
+
+			if (numeric[attribute]) {
+
+				value = data.numericColumns[attribute][row] <= thresholds[base / NODE_SIZE] ? 0 : 1;
+
+			} else {
+
+				value = data.columns[attribute][row];
+			}
+
+			if (value < 0 || value >= nodes[base + NUM_CHILDREN]) {
+
+				return nodes[base + LABEL];
+			}
+
+			base = (nodes[base + FIRST_CHILD] + value) * NODE_SIZE;
+		}
+	}
+
+	/**
+	 * Predicts the class of an encoded row, along with the class distribution of the
+	 * training rows that reached the same node
+	 *
+	 * @param row
+	 * @param counts - receives the number of training rows of class c at counts[c]; must hold numClasses entries
+	 *
+	 * @return the index of the predicted class, or UNKNOWN
+	 *
+	 * @throws IllegalStateException if the row reaches a node on a numeric attribute
+	 */
+	public int predictCounts (final int [] row, final int [] counts) {
+
+		return predictCounts (row, null, counts);
+	}
+
+	/**
+	 * Predicts the class of a row having numeric attributes, along with the class
+	 * distribution of the training rows that reached the same node
+	 */
+	public int predictCounts (final int [] codes, final double [] values, final int [] counts) {
+
+		int base = reach (codes, values);
+
+		Arrays.fill (counts, 0, classNames.length, 0);
+
+		int node = base / NODE_SIZE;
+
+		for (int i = distributionStarts[node]; i < distributionStarts[node + 1]; i++) {
+
+			counts[distributionClasses[i]] = distributionCounts[i];
+		}
+
+		return nodes[base + LABEL];
+	}
+
+	/**
+	 * @return the offset, in nodes, of the node a row ends up at
+	 */
+	private int reach (final int [] codes, final double [] values) {
+
+		int [] nodes = this.nodes;
+
+		int base = 0;
+
+		while (true) {
+
+			int attribute = nodes[base + ATTRIBUTE];
+
+			if (attribute < 0) {
+
+				return base;
+			}
+
+			int value;
+
+			if (numeric[attribute]) {
+
+				if (values == null) {
+
+					throw new IllegalStateException ("The tree splits " + attributeNames[attribute] + " at a threshold - predict the row with its numeric values");
+				}
+
+				value = values[attribute] <= thresholds[base / NODE_SIZE] ? 0 : 1;
+
+			} else {
+
+				value = codes[attribute];
+			}
+
+			if (value < 0 || value >= nodes[base + NUM_CHILDREN]) {
+
+				return base;
+			}
+
+			base = (nodes[base + FIRST_CHILD] + value) * NODE_SIZE;
+		}
+	}
+
+	/**
+	 * Predicts the class of every row, writing the results into out
+	 *
+	 * @param rows
+	 * @param out - receives the prediction for rows[i] at out[i]; must be at least as long as rows
+	 *
+	 * @throws IllegalStateException if a row reaches a node on a numeric attribute
+	 */
+	public void predictBatch (final int [][] rows, final int [] out) {
+
+		for (int i = 0; i < rows.length; i++) {
+
+			out[i] = predict (rows[i]);
+		}
+	}
+
+	/**
+	 * Predicts the class of every row of a columnar data set
+	 *
+	 * @param data
+	 * @param out - receives the prediction for row i at out[i]; must hold at least data.numRows entries
+	 */
+	public void predictBatch (final Dataset data, final int [] out) {
+
+		for (int i = 0; i < data.numRows; i++) {
+
+			out[i] = predict (data, i);
+		}
+	}
+
+	/**
+	 * @return the name of a class index returned by predict
+	 */
+	public String className (final int label) {
+
+		return classNames[label];
+	}
+
+	public int numClasses () {
+
+		return classNames.length;
+	}
+
+	public int numNodes () {
+
+		return nodes.length / NODE_SIZE;
+	}
+
+	/**
+	 * Saves the model in the binary form MappedTreeModel.open loads
+	 */
+	public void save (final String fileName) throws IOException {
+
+		MappedTreeModel.write (this, fileName);
+	}
+}
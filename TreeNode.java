@@ -11,28 +11,87 @@
  * Date       Version        Description
  ******************************************************************************
  * 17th Nov    1.0     	First cut at TreeNode
+ *
+ * 18th Oct    1.1     	Replaced the Vector of DataPoints by a range of row indices
+ *
+ *             1.2     	Leaves keep their class distribution instead of their rows
+ *
+ *             1.3     	Binary threshold splits on numeric attributes
+ *
+ *             1.4     	Histogram of the numeric attributes, for histogram split finding
+ *
+ *             1.5     	Bitset of the attributes used above the node, instead of a parent pointer
+ *
+ *             1.6     	The histogram is of doubles (see SplitStatistic)
  ******************************************************************************
  */
 
-import java.util.Vector;
-
 class TreeNode {
 
 	public double entropy;
 
-	public Vector data;
+	/*
+	 * The node covers the rows rows[start] .. rows[end - 1] of the data set
+	 */
+	public int [] rows;
+
+	public int start;
+
+	public int end;
 
 	public int decompositionAttribute;
 
 	public int decompositionValue;
 
+	/*
+	 * Set when the node splits a numeric attribute: children[0] takes the rows with
+	 * a value <= threshold, children[1] the rest ('?' included) - NaN otherwise
+	 */
+	public double threshold = Double.NaN;
+
+	/*
+	 * Histogram split finding only: the bin x class counts of the node's rows for every
+	 * numeric attribute, until the node is split - see DecisionTree.quantize
+	 */
+	public double [] histogram;
+
 	public TreeNode [] children;
 
-	public TreeNode parent;
+	/*
+	 * The symbolic attributes split on above the node, as a bitset (see DecisionTree.contains) -
+	 * null at the root; shared by siblings, so never modified in place
+	 */
+	public long [] usedAttributes;
+
+	/*
+	 * The majority class of the node's training rows - an empty node keeps its parent's
+	 */
+	public int label = -1;
+
+	/*
+	 * Leaves only: the classes present among the training rows, in domain order, 
+	 * and the number of rows of each
+	 */
+	public int [] leafClasses;
+
+	public int [] leafCounts;
 
 	
 	public TreeNode () {
 
-		data = new Vector ();
 	}
-};
\ No newline at end of file
+
+	public TreeNode (final int [] rows, final int start, final int end) {
+
+		this.rows = rows;
+
+		this.start = start;
+
+		this.end = end;
+	}
+
+	public int size () {
+
+		return end - start;
+	}
+};